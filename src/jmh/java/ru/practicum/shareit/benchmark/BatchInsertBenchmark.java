@@ -0,0 +1,94 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row-by-row creation through the single-entity services against the batch endpoints' service methods.
+ * Run with {@code -p datasetSize=1000} to keep the seeded database small.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BatchInsertBenchmark {
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private ItemService itemService;
+    private BookingService bookingService;
+    private List<ItemDto> items;
+    private List<BookingShortDto> bookings;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        itemService = application.getBean(ItemService.class);
+        bookingService = application.getBean(BookingService.class);
+        List<Long> availableItemIds = application.getBean(ItemRepository.class).findAllByAvailableTrue().stream()
+                .map(Item::getId)
+                .toList();
+        items = new ArrayList<>(rows);
+        bookings = new ArrayList<>(rows);
+        LocalDateTime start = LocalDateTime.now().plusYears(2);
+        for (int i = 0; i < rows; i++) {
+            items.add(ItemDto.builder().name("imported " + i).description("imported item " + i).available(true).build());
+            bookings.add(BookingShortDto.builder()
+                    .itemId(availableItemIds.get(i % availableItemIds.size()))
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i).plusMinutes(30))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<ItemDto> itemsOneByOne() {
+        List<ItemDto> created = new ArrayList<>(rows);
+        for (ItemDto item : items) {
+            created.add(itemService.create(item, SeededApplication.OWNER_ID));
+        }
+        return created;
+    }
+
+    @Benchmark
+    public List<ItemDto> itemsBatch() {
+        return itemService.createAll(items, SeededApplication.OWNER_ID);
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingsOneByOne() {
+        List<BookingDto> created = new ArrayList<>(rows);
+        for (BookingShortDto booking : bookings) {
+            created.add(bookingService.create(booking, SeededApplication.BOOKER_ID));
+        }
+        return created;
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingsBatch() {
+        return bookingService.createAll(bookings, SeededApplication.BOOKER_ID);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ItemServiceBenchmark {
+    private ItemServiceImpl itemService;
+    private List<ItemDto> ownerItems;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        itemService = application.getBean(ItemServiceImpl.class);
+        ownerItems = application.getBean(ItemMapper.class)
+                .mapItemsToDtos(application.getBean(ItemRepository.class).findAllByOwnerId(SeededApplication.OWNER_ID));
+    }
+
+    @Benchmark
+    public List<ItemDto> enrichItemsWithBookingInfo() {
+        itemService.enrichItemsWithBookingInfo(ownerItems);
+        return ownerItems;
+    }
+}
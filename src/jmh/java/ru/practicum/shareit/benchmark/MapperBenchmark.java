@@ -0,0 +1,77 @@
+package ru.practicum.shareit.benchmark;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MapperBenchmark {
+    @Param({"1000", "10000"})
+    public int datasetSize;
+
+    private final BookingMapper bookingMapper = Mappers.getMapper(BookingMapper.class);
+    private final ItemMapper itemMapper = Mappers.getMapper(ItemMapper.class);
+    private List<Booking> bookings;
+    private List<Item> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User owner = User.builder().id(1L).name("owner").email("owner@bench.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@bench.ru").build();
+        LocalDateTime now = LocalDateTime.now();
+        items = new ArrayList<>();
+        bookings = new ArrayList<>();
+        for (int i = 0; i < datasetSize; i++) {
+            Item item = Item.builder().id((long) i).owner(owner).name("drill " + i).description("cordless drill")
+                    .available(true).build();
+            items.add(item);
+            bookings.add(Booking.builder().id((long) i).item(item).booker(booker).start(now.plusHours(i))
+                    .end(now.plusHours(i + 1)).status(BookingStatus.APPROVED).build());
+        }
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingsToBookingDtos() {
+        return bookings.stream().map(bookingMapper::bookingModelToBookingDto).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BookingForItemDto> bookingsToBookingForItemDtos() {
+        return bookingMapper.mapBookingsToBookingForItemDtos(bookings);
+    }
+
+    @Benchmark
+    public List<ItemDto> itemsToItemDtos() {
+        return itemMapper.mapItemsToDtos(items);
+    }
+}
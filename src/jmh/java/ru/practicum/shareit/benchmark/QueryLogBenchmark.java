@@ -0,0 +1,79 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the query log, which proxies every connection, statement and result set: the same JDBC calls and
+ * one service call with the log switched off and on. H2 in memory answers in microseconds, so the relative
+ * overhead here is an upper bound for a database behind a network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class QueryLogBenchmark {
+    private JdbcTemplate jdbcTemplate;
+    private BookingService bookingService;
+    private long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp(LoggedApplication application) {
+        jdbcTemplate = application.getBean(JdbcTemplate.class);
+        bookingService = application.getBean(BookingService.class);
+        itemId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM items", Long.class);
+    }
+
+    @Benchmark
+    public String selectById() {
+        return jdbcTemplate.queryForObject("SELECT name FROM items WHERE id = ?", String.class, itemId);
+    }
+
+    @Benchmark
+    public List<String> readPage() {
+        return jdbcTemplate.query("SELECT id, start_date, end_date, status FROM bookings ORDER BY id LIMIT 100",
+                (resultSet, row) -> resultSet.getLong(1) + " " + resultSet.getTimestamp(2) + " "
+                                    + resultSet.getTimestamp(3) + " " + resultSet.getString(4));
+    }
+
+    @Benchmark
+    public int update() {
+        return jdbcTemplate.update("UPDATE items SET description = description WHERE id = ?", itemId);
+    }
+
+    @Benchmark
+    public BookingPage getAllByOwner() {
+        return bookingService.getAllByOwner(SeededApplication.OWNER_ID, "ALL", null, 0, null);
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoggedApplication extends SeededApplication {
+        @Param({"false", "true"})
+        public boolean queryLog;
+
+        @Override
+        protected List<String> arguments() {
+            List<String> arguments = super.arguments();
+            arguments.add("--shareit.query-log.enabled=" + queryLog);
+            return arguments;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.common.web.HeaderConstants;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same HTTP load against platform-thread and virtual-thread request handling: more concurrent clients than
+ * Tomcat's 200 platform threads, each waiting for its response before sending the next request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(400)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RequestModeBenchmark {
+    private HttpClient client;
+    private HttpRequest ownerBookings;
+    private HttpRequest search;
+
+    @Setup(Level.Trial)
+    public void setUp(ServedApplication application) {
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ownerBookings = get(application, "/bookings/owner?size=20");
+        search = get(application, "/items/search?text=drill&size=20");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public int getAllByOwner() throws IOException, InterruptedException {
+        return send(ownerBookings);
+    }
+
+    @Benchmark
+    public int searchItems() throws IOException, InterruptedException {
+        return send(search);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private static HttpRequest get(ServedApplication application, String pathAndQuery) {
+        return HttpRequest.newBuilder(application.uri(pathAndQuery))
+                .header(HeaderConstants.USER_ID, String.valueOf(SeededApplication.OWNER_ID))
+                .build();
+    }
+}
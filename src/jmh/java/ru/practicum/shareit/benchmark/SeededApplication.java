@@ -0,0 +1,114 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.OwnerBookingProjection;
+import ru.practicum.shareit.common.persistence.IdSequenceAligner;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Application context on a private in-memory H2 database seeded with one owner, {@code datasetSize / 10}
+ * items and {@code datasetSize} bookings spread over the past and the next year.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+    static final long OWNER_ID = 1L;
+    static final int BOOKERS = 100;
+    static final long BOOKER_ID = 2L;
+    static final String[] WORDS = {"drill", "saw", "hammer", "ladder", "tent", "bike", "kayak", "camera"};
+
+    @Param({"1000", "10000"})
+    public int datasetSize;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = configure(new SpringApplicationBuilder(ShareItApp.class))
+                .properties(
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .run(arguments().toArray(String[]::new));
+        seed(context.getBean(JdbcTemplate.class));
+        // Seeded rows took their ids from the identity columns; move the pooled sequences past them
+        context.getBean(IdSequenceAligner.class).align();
+        context.getBean(ItemSearchIndex.class).rebuild();
+        context.getBean(OwnerBookingProjection.class).rebuild();
+    }
+
+    /**
+     * Passed as command-line arguments: builder defaults lose to application.properties, which points at Postgres.
+     */
+    protected List<String> arguments() {
+        return new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password="));
+    }
+
+    /**
+     * Starts without a web server; subclasses that serve HTTP add their own settings here.
+     */
+    protected SpringApplicationBuilder configure(SpringApplicationBuilder application) {
+        return application.web(WebApplicationType.NONE);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(42);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i <= BOOKERS; i++) {
+            users.add(new Object[]{"user" + i, "user" + i + "@bench.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", users);
+
+        int itemCount = Math.max(1, datasetSize / 10);
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            String word = WORDS[i % WORDS.length];
+            items.add(new Object[]{word + " " + i, "cordless " + word + " number " + i, random.nextInt(5) > 0,
+                    OWNER_ID});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, description, is_available, owner_id) VALUES (?, ?, ?, ?)",
+                items);
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingStatus[] statuses = BookingStatus.values();
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 0; i < datasetSize; i++) {
+            LocalDateTime start = now.plusHours(random.nextInt(24 * 730) - 24 * 365);
+            bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1 + random.nextInt(72))),
+                    1 + random.nextInt(itemCount), 2 + random.nextInt(BOOKERS),
+                    statuses[random.nextInt(statuses.length)].name()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                                 + "VALUES (?, ?, ?, ?, ?)", bookings);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * {@link SeededApplication} behind Tomcat on a random port, handling requests on platform or virtual threads.
+ * With the virtual ones the database limiter is switched on as well, as the README recommends. Every statement
+ * can be delayed to stand in for the round trip to a database on another host; the delay is spent while the
+ * connection is held, as a real round trip would be.
+ */
+@State(Scope.Benchmark)
+public class ServedApplication extends SeededApplication {
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"0", "5"})
+    public int statementLatencyMillis;
+
+    @Override
+    protected List<String> arguments() {
+        boolean virtual = "virtual".equals(threads);
+        List<String> arguments = super.arguments();
+        arguments.add("--server.port=0");
+        arguments.add("--shareit.rate-limit.enabled=false");
+        arguments.add("--spring.threads.virtual.enabled=" + virtual);
+        arguments.add("--shareit.datasource.concurrency-limit.enabled=" + virtual);
+        return arguments;
+    }
+
+    @Override
+    protected SpringApplicationBuilder configure(SpringApplicationBuilder application) {
+        return application
+                .web(WebApplicationType.SERVLET)
+                .initializers(context -> {
+                    if (statementLatencyMillis > 0) {
+                        context.getBeanFactory().addBeanPostProcessor(latency(statementLatencyMillis));
+                    }
+                });
+    }
+
+    public URI uri(String pathAndQuery) {
+        return URI.create("http://localhost:" + getBean(Environment.class).getProperty("local.server.port")
+                          + pathAndQuery);
+    }
+
+    /**
+     * Registered before the application's own post-processors, so the delay sits next to the pool, inside the
+     * limiter and the query log.
+     */
+    private static BeanPostProcessor latency(long millis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return delaying(super.getConnection(), millis);
+                        }
+                    };
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Connection delaying(Connection connection, long millis) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getName().startsWith("prepare")) {
+                        return delaying(statement, method.getReturnType(), millis);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object delaying(Statement statement, Class<?> type, long millis) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        Thread.sleep(millis);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
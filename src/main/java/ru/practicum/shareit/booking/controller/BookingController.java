@@ -1,14 +1,25 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.common.web.HeaderConstants;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 
 @Slf4j
@@ -16,7 +27,12 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+    private static final Duration EXPORT_TIMEOUT = Duration.ofMinutes(10);
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto create(@Valid @RequestBody BookingShortDto bookingShortDto,
@@ -24,6 +40,12 @@ public class BookingController {
         return bookingService.create(bookingShortDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> createAll(@RequestBody List<BookingShortDto> bookingShortDtos,
+                                      @RequestHeader(HeaderConstants.USER_ID) Long userId) {
+        return bookingService.createAll(bookingShortDtos, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approve(@PathVariable Long bookingId, @RequestHeader(HeaderConstants.USER_ID) Long userId,
                               @RequestParam Boolean approved) {
@@ -31,19 +53,64 @@ public class BookingController {
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(@RequestHeader(HeaderConstants.USER_ID) Long userId,
-                                          @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getAllByOwner(userId, state);
+    public ResponseEntity<List<BookingDto>> getAllByOwner(@RequestHeader(HeaderConstants.USER_ID) Long userId,
+                                                          @RequestParam(defaultValue = "ALL") String state,
+                                                          @RequestParam(defaultValue = "0") int from,
+                                                          @RequestParam(required = false) Integer size,
+                                                          @RequestParam(required = false) String cursor) {
+        return toResponse(bookingService.getAllByOwner(userId, state, cursor, from, size));
+    }
+
+    @GetMapping(value = "/owner/export", produces = NDJSON)
+    public WebAsyncTask<Void> exportAllByOwner(@RequestHeader(HeaderConstants.USER_ID) Long userId,
+                                               HttpServletResponse response) {
+        bookingService.throwIfUserNotFound(userId);
+        response.setContentType(NDJSON);
+        ObjectWriter writer = objectMapper.writerFor(BookingDto.class);
+        // An export may take minutes; every other async request keeps the default timeout
+        return new WebAsyncTask<>(EXPORT_TIMEOUT.toMillis(), () -> {
+            OutputStream outputStream = response.getOutputStream();
+            int[] written = {0};
+            bookingService.exportAllByOwner(userId, booking -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(booking));
+                    outputStream.write('\n');
+                    if (++written[0] % EXPORT_FLUSH_INTERVAL == 1) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+            return null;
+        });
     }
 
     @GetMapping
-    public List<BookingDto> getAllByUser(@RequestHeader(HeaderConstants.USER_ID) Long userId,
-                                         @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getAllByUser(userId, state);
+    public ResponseEntity<List<BookingDto>> getAllByUser(@RequestHeader(HeaderConstants.USER_ID) Long userId,
+                                                         @RequestParam(defaultValue = "ALL") String state,
+                                                         @RequestParam(defaultValue = "0") int from,
+                                                         @RequestParam(required = false) Integer size,
+                                                         @RequestParam(required = false) String cursor) {
+        return toResponse(bookingService.getAllByUser(userId, state, cursor, from, size));
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDto getById(@PathVariable Long bookingId, @RequestHeader(HeaderConstants.USER_ID) Long userId) {
+    public BookingDto getById(@PathVariable Long bookingId, @RequestHeader(HeaderConstants.USER_ID) Long userId,
+                              WebRequest request) {
+        String etag = bookingService.getETag(bookingId, userId);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         return bookingService.getById(bookingId, userId);
     }
+
+    private ResponseEntity<List<BookingDto>> toResponse(BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(HeaderConstants.NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
+    }
 }
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.service.OwnerBookingProjection;
+
+import java.util.Map;
+
+/**
+ * {@code POST /actuator/ownerbookings} repairs the owner read model from bookings, items and users.
+ */
+@Component
+@Endpoint(id = "ownerbookings")
+@RequiredArgsConstructor
+public class OwnerBookingViewEndpoint {
+    private final OwnerBookingProjection ownerBookingProjection;
+
+    @WriteOperation
+    public Map<String, Integer> rebuild() {
+        OwnerBookingProjection.Rebuild rebuild = ownerBookingProjection.rebuild();
+        return Map.of("removed", rebuild.removed(), "inserted", rebuild.inserted());
+    }
+
+    // A database that predates the view starts with an empty table
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillOnStartup() {
+        ownerBookingProjection.rebuildIfEmpty();
+    }
+}
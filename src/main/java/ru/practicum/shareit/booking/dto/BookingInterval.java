@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Period an item is held by a booking, without the booking itself.
+ */
+public record BookingInterval(LocalDateTime start, LocalDateTime end) {
+}
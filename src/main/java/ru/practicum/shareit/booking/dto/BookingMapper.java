@@ -2,17 +2,46 @@ package ru.practicum.shareit.booking.dto;
 
 import java.util.List;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.OwnerBookingView;
 
 @Mapper(componentModel = "spring")
 public interface BookingMapper {
+
+    @Mapping(target = "version", ignore = true)
     Booking bookingDtoToBookingModel(BookingDto bookingDto);
 
+    @Mapping(target = "version", ignore = true)
     Booking bookingShortDtoToBookingModel(BookingShortDto bookingShortDto);
 
+    @Mapping(target = "version", ignore = true)
     Booking bookingForItemDtoToBookingModel(BookingForItemDto bookingForItemDto);
 
     BookingDto bookingModelToBookingDto(Booking booking);
 
+    @Mapping(source = "item.id", target = "itemId")
+    @Mapping(source = "booker.id", target = "bookerId")
+    BookingForItemDto bookingModelToBookingForItemDto(Booking booking);
+
     List<BookingForItemDto> mapBookingsToBookingForItemDtos(List<Booking> booking);
+
+    @Mapping(source = "id", target = "bookingId")
+    @Mapping(source = "item.owner.id", target = "ownerId")
+    @Mapping(source = "item.id", target = "itemId")
+    @Mapping(source = "item.name", target = "itemName")
+    @Mapping(source = "booker.id", target = "bookerId")
+    @Mapping(source = "booker.name", target = "bookerName")
+    @Mapping(source = "start", target = "startDate")
+    @Mapping(source = "end", target = "endDate")
+    OwnerBookingView bookingModelToOwnerBookingView(Booking booking);
+
+    @Mapping(source = "bookingId", target = "id")
+    @Mapping(source = "itemId", target = "item.id")
+    @Mapping(source = "itemName", target = "item.name")
+    @Mapping(source = "bookerId", target = "booker.id")
+    @Mapping(source = "bookerName", target = "booker.name")
+    @Mapping(source = "startDate", target = "start")
+    @Mapping(source = "endDate", target = "end")
+    BookingDto ownerBookingViewToBookingDto(OwnerBookingView ownerBookingView);
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Versions of every entity a {@link BookingDto} is built from; the ETag changes whenever the payload can.
+ */
+public record BookingVersion(long booking, long item, long booker) {
+    public String toETag() {
+        return booking + "." + item + "." + booker;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Number of bookings of an item matching a grouped query.
+ */
+public record ItemBookingCount(Long itemId, long count) {
+}
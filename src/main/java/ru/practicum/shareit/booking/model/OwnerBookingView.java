@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized booking row keyed by the item owner, so owner lists read a single table.
+ */
+@Entity
+@Table(name = "owner_booking_view", indexes = {
+        @Index(name = "idx_owner_booking_view_owner_start", columnList = "owner_id, start_date"),
+        @Index(name = "idx_owner_booking_view_owner_status_start", columnList = "owner_id, status, start_date"),
+        @Index(name = "idx_owner_booking_view_item", columnList = "item_id"),
+        @Index(name = "idx_owner_booking_view_booker", columnList = "booker_id")
+})
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OwnerBookingView {
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "item_name", nullable = false)
+    private String itemName;
+
+    @Column(name = "booker_id", nullable = false)
+    private Long bookerId;
+
+    @Column(name = "booker_name", nullable = false)
+    private String bookerName;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime endDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private BookingStatus status;
+}
@@ -1,53 +1,183 @@
 package ru.practicum.shareit.booking.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingVersion;
+import ru.practicum.shareit.booking.dto.ItemBookingCount;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     List<Booking> findAllByItemIdOrderByStartAsc(Long itemId);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     List<Booking> findAllByItemIdOrderByStartDesc(Long itemId);
 
-    List<Booking> findAllByBooker(User booker, Sort sort);
+    @Query("""
+           SELECT new ru.practicum.shareit.booking.dto.BookingVersion(b.version, i.version, u.version)
+           FROM Booking b JOIN b.item i JOIN b.booker u
+           WHERE b.id = :id AND (u.id = :userId OR i.owner.id = :userId)
+           """)
+    Optional<BookingVersion> findVersionByIdAndParticipant(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Moves a WAITING booking to {@code status}; returns 0 when another request has already decided it.
+     */
+    @Modifying
+    @Query("""
+           UPDATE Booking b SET b.status = :status, b.version = b.version + 1
+           WHERE b.id = :id AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING
+           """)
+    int decideWaiting(@Param("id") Long id, @Param("status") BookingStatus status);
 
     List<Booking> findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(Long bookerId, Long itemId,
                                                                           BookingStatus status, LocalDateTime end);
 
-    List<Booking> findAllByBookerAndStartBeforeAndEndAfter(User booker, LocalDateTime start,
-                                                           LocalDateTime end, Sort sort);
-
-    List<Booking> findAllByBookerAndEndBefore(User booker, LocalDateTime end, Sort sort);
-
-    List<Booking> findAllByBookerAndStartAfter(User booker, LocalDateTime start, Sort sort);
-
-    List<Booking> findAllByBookerAndStatusEquals(User booker, BookingStatus status, Sort sort);
-
-    List<Booking> findAllByItemOwner(User owner, Sort sort);
-
-    List<Booking> findAllByItemOwnerAndStartBeforeAndEndAfter(User owner, LocalDateTime start,
-                                                              LocalDateTime end, Sort sort);
-
-    List<Booking> findAllByItemOwnerAndEndBefore(User owner, LocalDateTime end, Sort sort);
-
-    List<Booking> findAllByItemOwnerAndStartAfter(User owner, LocalDateTime start, Sort sort);
-
-    List<Booking> findAllByItemOwnerAndStatusEquals(User owner, BookingStatus status, Sort sort);
-
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query("""
+           SELECT b FROM Booking b
+           WHERE b.booker.id = :bookerId
+             AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))
+           ORDER BY b.start DESC, b.id DESC
+           """)
+    List<Booking> findPageByBookerId(@Param("bookerId") Long bookerId,
+                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                     @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query("""
+           SELECT b FROM Booking b
+           WHERE b.booker.id = :bookerId
+             AND b.start < :now AND b.end > :now
+             AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))
+           ORDER BY b.start DESC, b.id DESC
+           """)
+    List<Booking> findCurrentPageByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query("""
+           SELECT b FROM Booking b
+           WHERE b.booker.id = :bookerId
+             AND b.end < :now
+             AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))
+           ORDER BY b.start DESC, b.id DESC
+           """)
+    List<Booking> findPastPageByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                         @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query("""
+           SELECT b FROM Booking b
+           WHERE b.booker.id = :bookerId
+             AND b.start > :now
+             AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))
+           ORDER BY b.start DESC, b.id DESC
+           """)
+    List<Booking> findFuturePageByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query("""
+           SELECT b FROM Booking b
+           WHERE b.booker.id = :bookerId
+             AND b.status = :status
+             AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))
+           ORDER BY b.start DESC, b.id DESC
+           """)
+    List<Booking> findPageByBookerIdAndStatus(@Param("bookerId") Long bookerId, @Param("status") BookingStatus status,
+                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                              @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+           SELECT b FROM Booking b
+           WHERE b.item.owner.id = :ownerId
+           ORDER BY b.start DESC, b.id DESC
+           """)
+    Stream<Booking> streamAllByOwnerId(@Param("ownerId") Long ownerId);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     List<Booking> findAllByItemIdAndStatus(Long itemId, BookingStatus approved, Sort sort);
 
+    @Query("""
+           SELECT new ru.practicum.shareit.booking.dto.BookingInterval(b.start, b.end)
+           FROM Booking b
+           WHERE b.item.id = :itemId AND b.status IN :statuses AND b.end > :after
+           ORDER BY b.start
+           """)
+    List<BookingInterval> findIntervalsByItemId(@Param("itemId") Long itemId,
+                                                @Param("statuses") Collection<BookingStatus> statuses,
+                                                @Param("after") LocalDateTime after);
+
+    @Query("SELECT DISTINCT b.item.id FROM Booking b WHERE b.booker.id = :bookerId")
+    List<Long> findItemIdsByBookerId(@Param("bookerId") Long bookerId);
+
+    @Query("""
+           SELECT new ru.practicum.shareit.booking.dto.ItemBookingCount(b.item.id, COUNT(b))
+           FROM Booking b
+           WHERE b.item.id IN :itemIds AND b.status = :status AND b.end < :before
+           GROUP BY b.item.id
+           """)
+    List<ItemBookingCount> countByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("status") BookingStatus status,
+                                           @Param("before") LocalDateTime before);
+
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     List<Booking> findByItemInAndStatusEquals(List<Item> items, BookingStatus stat);
 
+    /**
+     * Per item, the bookings with the given status that start last before {@code now} and first after it.
+     */
+    @Query("""
+           SELECT b FROM Booking b
+           WHERE b.item.id IN :itemIds AND b.status = :status
+             AND (b.start = (SELECT MAX(l.start) FROM Booking l
+                             WHERE l.item.id = b.item.id AND l.status = :status AND l.start < :now)
+               OR b.start = (SELECT MIN(n.start) FROM Booking n
+                             WHERE n.item.id = b.item.id AND n.status = :status AND n.start > :now))
+           """)
+    List<Booking> findLastAndNextByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                            @Param("status") BookingStatus status,
+                                            @Param("now") LocalDateTime now);
+
     Optional<Booking> findFirstByItemIdInAndStartLessThanEqualAndStatus(List<Long> idItems, LocalDateTime now,
                                                                         BookingStatus approved, Sort sort);
 
     Optional<Booking> findFirstByItemIdInAndStartAfterAndStatus(List<Long> idItems, LocalDateTime now,
                                                                 BookingStatus approved, Sort sort);
-}
\ No newline at end of file
+
+    List<Booking> findAllByItemIdInAndStatusAndStartBeforeAndEndAfter(Collection<Long> itemIds, BookingStatus status,
+                                                                      LocalDateTime end, LocalDateTime start);
+
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfter(Long itemId, BookingStatus status,
+                                                             LocalDateTime end, LocalDateTime start);
+}
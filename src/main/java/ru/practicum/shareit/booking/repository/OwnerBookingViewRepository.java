@@ -0,0 +1,110 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.OwnerBookingView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OwnerBookingViewRepository extends JpaRepository<OwnerBookingView, Long> {
+    @Query("""
+           SELECT v FROM OwnerBookingView v
+           WHERE v.ownerId = :ownerId
+             AND (v.startDate < :cursorStart OR (v.startDate = :cursorStart AND v.bookingId < :cursorId))
+           ORDER BY v.startDate DESC, v.bookingId DESC
+           """)
+    List<OwnerBookingView> findPageByOwnerId(@Param("ownerId") Long ownerId,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("""
+           SELECT v FROM OwnerBookingView v
+           WHERE v.ownerId = :ownerId
+             AND v.startDate < :now AND v.endDate > :now
+             AND (v.startDate < :cursorStart OR (v.startDate = :cursorStart AND v.bookingId < :cursorId))
+           ORDER BY v.startDate DESC, v.bookingId DESC
+           """)
+    List<OwnerBookingView> findCurrentPageByOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("""
+           SELECT v FROM OwnerBookingView v
+           WHERE v.ownerId = :ownerId
+             AND v.endDate < :now
+             AND (v.startDate < :cursorStart OR (v.startDate = :cursorStart AND v.bookingId < :cursorId))
+           ORDER BY v.startDate DESC, v.bookingId DESC
+           """)
+    List<OwnerBookingView> findPastPageByOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                                 @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("""
+           SELECT v FROM OwnerBookingView v
+           WHERE v.ownerId = :ownerId
+             AND v.startDate > :now
+             AND (v.startDate < :cursorStart OR (v.startDate = :cursorStart AND v.bookingId < :cursorId))
+           ORDER BY v.startDate DESC, v.bookingId DESC
+           """)
+    List<OwnerBookingView> findFuturePageByOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                                   @Param("cursorStart") LocalDateTime cursorStart,
+                                                   @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("""
+           SELECT v FROM OwnerBookingView v
+           WHERE v.ownerId = :ownerId
+             AND v.status = :status
+             AND (v.startDate < :cursorStart OR (v.startDate = :cursorStart AND v.bookingId < :cursorId))
+           ORDER BY v.startDate DESC, v.bookingId DESC
+           """)
+    List<OwnerBookingView> findPageByOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                                      @Param("status") BookingStatus status,
+                                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                                      @Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OwnerBookingView v SET v.status = :status WHERE v.bookingId = :bookingId")
+    int updateStatus(@Param("bookingId") Long bookingId, @Param("status") BookingStatus status);
+
+    @Modifying
+    @Query("UPDATE OwnerBookingView v SET v.itemName = :name WHERE v.itemId = :itemId")
+    int updateItemName(@Param("itemId") Long itemId, @Param("name") String name);
+
+    @Modifying
+    @Query("UPDATE OwnerBookingView v SET v.bookerName = :name WHERE v.bookerId = :bookerId")
+    int updateBookerName(@Param("bookerId") Long bookerId, @Param("name") String name);
+
+    @Modifying
+    @Query("DELETE FROM OwnerBookingView v WHERE v.itemId = :itemId")
+    int deleteAllByItemId(@Param("itemId") Long itemId);
+
+    @Modifying
+    @Query("DELETE FROM OwnerBookingView v WHERE v.ownerId = :userId OR v.bookerId = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("""
+           DELETE FROM OwnerBookingView v
+           WHERE NOT EXISTS (SELECT b.id FROM Booking b JOIN b.item i JOIN b.booker u
+                             WHERE b.id = v.bookingId
+                               AND i.owner.id = v.ownerId AND i.id = v.itemId AND i.name = v.itemName
+                               AND u.id = v.bookerId AND u.name = v.bookerName
+                               AND b.start = v.startDate AND b.end = v.endDate AND b.status = v.status)
+           """)
+    int deleteStaleRows();
+
+    @Modifying
+    @Query("""
+           INSERT INTO OwnerBookingView (bookingId, ownerId, itemId, itemName, bookerId, bookerName,
+                                         startDate, endDate, status)
+           SELECT b.id, i.owner.id, i.id, i.name, u.id, u.name, b.start, b.end, b.status
+           FROM Booking b JOIN b.item i JOIN b.booker u
+           WHERE NOT EXISTS (SELECT v.bookingId FROM OwnerBookingView v WHERE v.bookingId = b.id)
+           """)
+    int insertMissingFromBookings();
+}
@@ -1,163 +1,357 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingVersion;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.OwnerBookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingViewRepository;
+import ru.practicum.shareit.common.outbox.OutboxEventType;
+import ru.practicum.shareit.common.outbox.OutboxPublisher;
+import ru.practicum.shareit.common.persistence.KeysetCursor;
+import ru.practicum.shareit.common.persistence.OffsetLimitPageable;
+import ru.practicum.shareit.common.validation.BulkValidator;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ErrorCode;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityCalendar;
+import ru.practicum.shareit.item.service.ItemBookingTimeline;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class BookingService {
+    private static final String BOOKING_AGGREGATE = "Booking";
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
-
-    private final Sort sort = Sort.by(Sort.Direction.DESC, "start");
+    private final ItemBookingTimeline itemBookingTimeline;
+    private final ItemAvailabilityCalendar itemAvailabilityCalendar;
+    private final BulkValidator bulkValidator;
+    private final EntityManager entityManager;
+    private final OwnerBookingViewRepository ownerBookingViewRepository;
+    private final OwnerBookingProjection ownerBookingProjection;
+    private final OutboxPublisher outboxPublisher;
 
     @Transactional
     public BookingDto create(BookingShortDto bookingShortDto, Long userId) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Not possible create Booking - " +
-                                                         "Not found User with Id " + userId));
-        Item item = itemRepository.findById(bookingShortDto.getItemId())
-                .orElseThrow(() -> new NotFoundException("Not possible create Booking - " +
-                                                         "Not found Item with Id " + bookingShortDto.getItemId()));
-        if (item.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Not possible create booking - " +
-                                        "User cannot book a thing belonging to him");
-        }
-        if (!item.isAvailable()) {
-            throw new BadRequestException("Not possible create Booking - " +
-                                          "this item is not available");
-        }
-        Booking booking = bookingMapper.bookingShortDtoToBookingModel(bookingShortDto);
-        if (booking.getEnd().isBefore(booking.getStart()) || booking.getEnd() == booking.getStart()) {
-            throw new BadRequestException("Not possible create Booking - " +
-                                          "the end date of the booking cannot be earlier than the start date of the booking");
-        }
-        booking.setBooker(user);
-        booking.setItem(item);
-        booking.setStatus(BookingStatus.WAITING);
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
+        Item item = itemRepository.findByIdForUpdate(bookingShortDto.getItemId())
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, bookingShortDto.getItemId()));
+        Booking booking = toNewBooking(bookingShortDto, user, item);
+        throwIfOverlapsApproved(item.getId(), booking);
         bookingRepository.save(booking);
+        ownerBookingProjection.onCreated(List.of(booking));
+        itemAvailabilityCalendar.evict(item.getId());
+        BookingDto created = bookingMapper.bookingModelToBookingDto(booking);
+        outboxPublisher.publish(BOOKING_AGGREGATE, booking.getId(), OutboxEventType.BOOKING_CREATED, created);
 
-        return bookingMapper.bookingModelToBookingDto(booking);
+        return created;
+    }
+
+    @Transactional
+    public List<BookingDto> createAll(List<BookingShortDto> bookingShortDtos, Long userId) {
+        bulkValidator.validate(bookingShortDtos);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
+        Set<Long> itemIds = bookingShortDtos.stream()
+                .map(BookingShortDto::getItemId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Item> items = itemRepository.findAllByIdForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Booking> bookings = new ArrayList<>(bookingShortDtos.size());
+        for (BookingShortDto bookingShortDto : bookingShortDtos) {
+            Item item = items.get(bookingShortDto.getItemId());
+            if (item == null) {
+                throw new NotFoundException(ErrorCode.ITEM_NOT_FOUND, bookingShortDto.getItemId());
+            }
+            bookings.add(toNewBooking(bookingShortDto, user, item));
+        }
+        throwIfAnyOverlapsApproved(itemIds, bookings);
+        bookingRepository.saveAll(bookings);
+        ownerBookingProjection.onCreated(bookings);
+        itemIds.forEach(itemAvailabilityCalendar::evict);
+        List<BookingDto> created = bookings.stream()
+                .map(bookingMapper::bookingModelToBookingDto)
+                .collect(Collectors.toList());
+        created.forEach(booking -> outboxPublisher.publish(BOOKING_AGGREGATE, booking.getId(),
+                OutboxEventType.BOOKING_CREATED, booking));
+        bookingRepository.flush();
+
+        return created;
     }
 
     @Transactional
     public BookingDto approve(Long bookingId, Long userId, Boolean approved) {
         Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new NotFoundException("Not possible create Booking - " +
-                                                         "Not found Booking with Id " + bookingId));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.BOOKING_NOT_FOUND, bookingId));
         if (!userId.equals(booking.getItem().getOwner().getId())) {
-            throw new BadRequestException("Not possible create booking - " +
-                                          "Not found Booking with Id " + bookingId + " for user with an id " + userId);
+            throw new BadRequestException(ErrorCode.NOT_ITEM_OWNER, bookingId, userId);
         }
         if (!booking.getStatus().equals(BookingStatus.WAITING)) {
-            throw new BadRequestException("It is not possible to confirm the Booking - " +
-                                          "the booking has already been confirmed or declined");
+            throw new BadRequestException(ErrorCode.BOOKING_ALREADY_DECIDED);
+        }
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (approved) {
+            // The item lock only orders approvals of different bookings for the same item for the overlap check
+            itemRepository.findByIdForUpdate(booking.getItem().getId());
+            throwIfOverlapsApproved(booking.getItem().getId(), booking);
         }
+        if (bookingRepository.decideWaiting(bookingId, status) == 0) {
+            throw new ValidationException(ErrorCode.BOOKING_DECIDED_CONCURRENTLY);
+        }
+        ownerBookingProjection.onDecided(bookingId, status);
+        // The row was changed by the UPDATE above; keep the stale copy out of the flush
+        entityManager.detach(booking);
+        booking.setStatus(status);
+        booking.setVersion(booking.getVersion() + 1);
         if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+            itemBookingTimeline.onApproved(booking);
         }
+        itemAvailabilityCalendar.evict(booking.getItem().getId());
+        BookingDto decided = bookingMapper.bookingModelToBookingDto(booking);
+        outboxPublisher.publish(BOOKING_AGGREGATE, bookingId,
+                approved ? OutboxEventType.BOOKING_APPROVED : OutboxEventType.BOOKING_REJECTED, decided);
 
-        return bookingMapper.bookingModelToBookingDto(booking);
+        return decided;
     }
 
-    public List<BookingDto> getAllByOwner(Long userId, String state) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Not found Bookings - " +
-                                                         "there is no User with Id " + userId));
-        List<Booking> bookingDtoList;
-        switch (BookingState.valueOf(state)) {
+    public BookingPage getAllByOwner(Long userId, String state, String cursor, int from, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
+        }
+        KeysetCursor position = KeysetCursor.decodeOrFirst(cursor);
+        Pageable pageable = toPageable(cursor, from, size);
+        LocalDateTime now = LocalDateTime.now();
+        List<OwnerBookingView> bookings;
+        switch (toState(state)) {
             case ALL:
-                bookingDtoList = bookingRepository.findAllByItemOwner(user, sort);
+                bookings = ownerBookingViewRepository.findPageByOwnerId(userId, position.getTimestamp(),
+                        position.getId(), pageable);
                 break;
             case CURRENT:
-                bookingDtoList = bookingRepository.findAllByItemOwnerAndStartBeforeAndEndAfter(user,
-                        LocalDateTime.now(), LocalDateTime.now(), sort);
+                bookings = ownerBookingViewRepository.findCurrentPageByOwnerId(userId, now, position.getTimestamp(),
+                        position.getId(), pageable);
                 break;
             case PAST:
-                bookingDtoList = bookingRepository.findAllByItemOwnerAndEndBefore(user,
-                        LocalDateTime.now(), sort);
+                bookings = ownerBookingViewRepository.findPastPageByOwnerId(userId, now, position.getTimestamp(),
+                        position.getId(), pageable);
                 break;
             case FUTURE:
-                bookingDtoList = bookingRepository.findAllByItemOwnerAndStartAfter(user, LocalDateTime.now(), sort);
+                bookings = ownerBookingViewRepository.findFuturePageByOwnerId(userId, now, position.getTimestamp(),
+                        position.getId(), pageable);
                 break;
             case WAITING:
-                bookingDtoList = bookingRepository.findAllByItemOwnerAndStatusEquals(user, BookingStatus.WAITING, sort);
+                bookings = ownerBookingViewRepository.findPageByOwnerIdAndStatus(userId, BookingStatus.WAITING,
+                        position.getTimestamp(), position.getId(), pageable);
                 break;
             case REJECTED:
-                bookingDtoList = bookingRepository.findAllByItemOwnerAndStatusEquals(user, BookingStatus.REJECTED, sort);
+                bookings = ownerBookingViewRepository.findPageByOwnerIdAndStatus(userId, BookingStatus.REJECTED,
+                        position.getTimestamp(), position.getId(), pageable);
                 break;
             default:
-                throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
+                throw new BadRequestException(ErrorCode.UNKNOWN_STATE);
         }
 
-        return bookingDtoList.stream().map(bookingMapper::bookingModelToBookingDto).collect(Collectors.toList());
+        return toPage(bookings, size,
+                view -> KeysetCursor.after(view.getStartDate(), view.getBookingId()),
+                bookingMapper::ownerBookingViewToBookingDto);
     }
 
-    public List<BookingDto> getAllByUser(Long userId, String state) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Not found Bookings - " +
-                                                         "Not found User with Id " + userId));
-        List<Booking> bookingDtoList;
-        switch (BookingState.valueOf(state)) {
+    public BookingPage getAllByUser(Long userId, String state, String cursor, int from, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
+        }
+        KeysetCursor position = KeysetCursor.decodeOrFirst(cursor);
+        Pageable pageable = toPageable(cursor, from, size);
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings;
+        switch (toState(state)) {
             case ALL:
-                bookingDtoList = bookingRepository.findAllByBooker(user, sort);
+                bookings = bookingRepository.findPageByBookerId(userId, position.getTimestamp(), position.getId(),
+                        pageable);
                 break;
             case CURRENT:
-                bookingDtoList = bookingRepository.findAllByBookerAndStartBeforeAndEndAfter(user,
-                        LocalDateTime.now(), LocalDateTime.now(), sort);
+                bookings = bookingRepository.findCurrentPageByBookerId(userId, now, position.getTimestamp(),
+                        position.getId(), pageable);
                 break;
             case PAST:
-                bookingDtoList = bookingRepository.findAllByBookerAndEndBefore(user,
-                        LocalDateTime.now(), sort);
+                bookings = bookingRepository.findPastPageByBookerId(userId, now, position.getTimestamp(),
+                        position.getId(), pageable);
                 break;
             case FUTURE:
-                bookingDtoList = bookingRepository.findAllByBookerAndStartAfter(user, LocalDateTime.now(), sort);
+                bookings = bookingRepository.findFuturePageByBookerId(userId, now, position.getTimestamp(),
+                        position.getId(), pageable);
                 break;
             case WAITING:
-                bookingDtoList = bookingRepository.findAllByBookerAndStatusEquals(user, BookingStatus.WAITING, sort);
+                bookings = bookingRepository.findPageByBookerIdAndStatus(userId, BookingStatus.WAITING,
+                        position.getTimestamp(), position.getId(), pageable);
                 break;
             case REJECTED:
-                bookingDtoList = bookingRepository.findAllByBookerAndStatusEquals(user, BookingStatus.REJECTED, sort);
+                bookings = bookingRepository.findPageByBookerIdAndStatus(userId, BookingStatus.REJECTED,
+                        position.getTimestamp(), position.getId(), pageable);
                 break;
             default:
-                throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
+                throw new BadRequestException(ErrorCode.UNKNOWN_STATE);
+        }
+
+        return toPage(bookings, size, booking -> KeysetCursor.after(booking.getStart(), booking.getId()),
+                bookingMapper::bookingModelToBookingDto);
+    }
+
+    public void throwIfUserNotFound(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
+        }
+    }
+
+    /**
+     * Streams all bookings of the owner's items, latest first. The persistence context is cleared every
+     * {@value #EXPORT_CLEAR_INTERVAL} rows, which drops the bookings together with their items and bookers,
+     * so it does not grow with the result.
+     */
+    public void exportAllByOwner(Long userId, Consumer<BookingDto> consumer) {
+        int[] exported = {0};
+        try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(userId)) {
+            bookings.forEach(booking -> {
+                consumer.accept(bookingMapper.bookingModelToBookingDto(booking));
+                if (++exported[0] % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            });
         }
+    }
 
-        return bookingDtoList.stream().map(bookingMapper::bookingModelToBookingDto).collect(Collectors.toList());
+    /**
+     * ETag of the booking as seen by {@code userId}, or null when the caller may not see it and
+     * {@link #getById} has to report the error.
+     */
+    public String getETag(Long bookingId, Long userId) {
+        return bookingRepository.findVersionByIdAndParticipant(bookingId, userId)
+                .map(BookingVersion::toETag)
+                .orElse(null);
     }
 
     public BookingDto getById(Long bookingId, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new NotFoundException("There is no Booking with Id " + bookingId));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.BOOKING_NOT_FOUND, bookingId));
         if (!userId.equals(booking.getBooker().getId()) && !userId.equals(booking.getItem().getOwner().getId())) {
-            throw new NotFoundException("Only the Booking author can view the booking details " +
-                                        "or the owner of Item");
+            throw new NotFoundException(ErrorCode.BOOKING_NOT_VISIBLE);
         }
 
         return bookingMapper.bookingModelToBookingDto(booking);
     }
+
+    private Booking toNewBooking(BookingShortDto bookingShortDto, User user, Item item) {
+        if (item.getOwner().getId().equals(user.getId())) {
+            throw new NotFoundException(ErrorCode.OWN_ITEM_BOOKING);
+        }
+        if (!item.isAvailable()) {
+            throw new BadRequestException(ErrorCode.ITEM_UNAVAILABLE);
+        }
+        Booking booking = bookingMapper.bookingShortDtoToBookingModel(bookingShortDto);
+        if (!booking.getEnd().isAfter(booking.getStart())) {
+            throw new BadRequestException(ErrorCode.INVALID_BOOKING_PERIOD);
+        }
+        booking.setBooker(user);
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.WAITING);
+        return booking;
+    }
+
+    private void throwIfAnyOverlapsApproved(Collection<Long> itemIds, List<Booking> bookings) {
+        LocalDateTime from = bookings.stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = bookings.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<Booking>> approvedByItem = bookingRepository
+                .findAllByItemIdInAndStatusAndStartBeforeAndEndAfter(itemIds, BookingStatus.APPROVED, to, from).stream()
+                .collect(Collectors.groupingBy(approved -> approved.getItem().getId()));
+        for (Booking booking : bookings) {
+            Long itemId = booking.getItem().getId();
+            boolean overlaps = approvedByItem.getOrDefault(itemId, List.of()).stream()
+                    .anyMatch(approved -> approved.getStart().isBefore(booking.getEnd())
+                                          && approved.getEnd().isAfter(booking.getStart()));
+            if (overlaps) {
+                throw new ValidationException(ErrorCode.BOOKING_OVERLAP, itemId);
+            }
+        }
+    }
+
+    /**
+     * Decided against the database under the item row lock, never against the in-process booking caches: those
+     * only serve reads, may lag behind other instances and are evicted after commit.
+     */
+    private void throwIfOverlapsApproved(Long itemId, Booking booking) {
+        if (bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(itemId, BookingStatus.APPROVED,
+                booking.getEnd(), booking.getStart())) {
+            throw new ValidationException(ErrorCode.BOOKING_OVERLAP, itemId);
+        }
+    }
+
+    private static BookingState toState(String state) {
+        if (state != null) {
+            for (BookingState value : BookingState.values()) {
+                if (value.name().equals(state)) {
+                    return value;
+                }
+            }
+        }
+        throw new BadRequestException(ErrorCode.UNKNOWN_STATE);
+    }
+
+    private Pageable toPageable(String cursor, int from, Integer size) {
+        if (from < 0 || (size != null && size <= 0)) {
+            throw new BadRequestException(ErrorCode.INVALID_PAGINATION, from, size);
+        }
+        if (size == null) {
+            return Pageable.unpaged();
+        }
+        // The cursor already points past the previous page, so OFFSET is only used by legacy from/size clients
+        return cursor == null ? OffsetLimitPageable.of(from, size) : PageRequest.of(0, size);
+    }
+
+    private <T> BookingPage toPage(List<T> rows, Integer size, Function<T, KeysetCursor> position,
+                                   Function<T, BookingDto> mapper) {
+        String nextCursor = null;
+        if (size != null && rows.size() == size) {
+            nextCursor = position.apply(rows.get(rows.size() - 1)).encode();
+        }
+
+        return BookingPage.builder()
+                .bookings(rows.stream().map(mapper).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
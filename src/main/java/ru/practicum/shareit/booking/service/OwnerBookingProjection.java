@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingViewRepository;
+
+import java.util.List;
+
+/**
+ * Keeps {@code owner_booking_view} in step with bookings, items and users. Every method joins the caller's
+ * transaction, so the projection commits or rolls back together with the change it mirrors.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OwnerBookingProjection {
+    private final OwnerBookingViewRepository ownerBookingViewRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingMapper bookingMapper;
+    private final EntityManager entityManager;
+
+    @Transactional
+    public void onCreated(List<Booking> bookings) {
+        // The id is assigned, so persist directly instead of letting save() merge with a SELECT per row
+        bookings.forEach(booking -> entityManager.persist(bookingMapper.bookingModelToOwnerBookingView(booking)));
+    }
+
+    @Transactional
+    public void onDecided(Long bookingId, BookingStatus status) {
+        ownerBookingViewRepository.updateStatus(bookingId, status);
+    }
+
+    @Transactional
+    public void onItemRenamed(Long itemId, String name) {
+        ownerBookingViewRepository.updateItemName(itemId, name);
+    }
+
+    @Transactional
+    public void onUserRenamed(Long userId, String name) {
+        ownerBookingViewRepository.updateBookerName(userId, name);
+    }
+
+    @Transactional
+    public void onItemDeleted(Long itemId) {
+        ownerBookingViewRepository.deleteAllByItemId(itemId);
+    }
+
+    @Transactional
+    public void onUserDeleted(Long userId) {
+        ownerBookingViewRepository.deleteAllByUserId(userId);
+    }
+
+    /**
+     * Brings the view back in line with the source tables without emptying it first. Rows that already match
+     * are left alone, so a concurrent {@link #onCreated} never collides with a re-inserted key and an update
+     * waiting on a row lock is not lost with a deleted row. A row deleted as stale is re-read by the insert,
+     * which runs as a separate statement and sees every change committed in between.
+     */
+    @Transactional
+    public Rebuild rebuild() {
+        int removed = ownerBookingViewRepository.deleteStaleRows();
+        int inserted = ownerBookingViewRepository.insertMissingFromBookings();
+        log.info("Owner booking view rebuilt: {} rows removed, {} inserted", removed, inserted);
+        return new Rebuild(removed, inserted);
+    }
+
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (ownerBookingViewRepository.count() == 0 && bookingRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    public record Rebuild(int removed, int inserted) {
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.comments.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class CommentPage {
+    private final List<CommentDto> comments;
+
+    private final String nextCursor;
+}
@@ -1,10 +1,28 @@
 package ru.practicum.shareit.comments.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.comments.model.Comment;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(Comment.WITH_AUTHOR)
     List<Comment> findAllByItemId(Long id);
+
+    @EntityGraph(Comment.WITH_AUTHOR)
+    @Query("""
+           SELECT c FROM Comment c
+           WHERE c.item.id = :itemId
+             AND (c.created < :cursorCreated OR (c.created = :cursorCreated AND c.id < :cursorId))
+           ORDER BY c.created DESC, c.id DESC
+           """)
+    List<Comment> findPageByItemId(@Param("itemId") Long itemId,
+                                   @Param("cursorCreated") LocalDateTime cursorCreated,
+                                   @Param("cursorId") Long cursorId,
+                                   Pageable pageable);
 }
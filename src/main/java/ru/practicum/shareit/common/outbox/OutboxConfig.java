@@ -0,0 +1,37 @@
+package ru.practicum.shareit.common.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+    @Bean
+    public MeterBinder outboxMetrics(ObjectProvider<OutboxDispatcher> dispatcher) {
+        return registry -> dispatcher.ifAvailable(outbox -> {
+            Gauge.builder("shareit.outbox.pending", outbox, OutboxDispatcher::getPending).register(registry);
+            Gauge.builder("shareit.outbox.parked.events", outbox, OutboxDispatcher::getParked).register(registry);
+            TimeGauge.builder("shareit.outbox.lag", outbox, TimeUnit.MILLISECONDS, OutboxDispatcher::getLagMillis)
+                    .register(registry);
+        });
+    }
+
+    // The first poll waits one interval, so the dispatcher does not start while the application is starting
+    @Bean
+    public SchedulingConfigurer outboxSchedule(ObjectProvider<OutboxDispatcher> dispatcher,
+                                               OutboxProperties properties) {
+        return registrar -> dispatcher.ifAvailable(outbox -> registrar.addFixedDelayTask(
+                new FixedDelayTask(outbox::dispatch, properties.getPollInterval(), properties.getPollInterval())));
+    }
+}
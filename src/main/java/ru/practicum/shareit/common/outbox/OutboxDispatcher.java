@@ -0,0 +1,120 @@
+package ru.practicum.shareit.common.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox in id order. A failed event stays in the table and is retried with exponential backoff;
+ * until it is delivered it holds back later events of the same aggregate, while other aggregates keep flowing.
+ * After {@code max-attempts} failures the event is parked and its aggregate stays held back until an operator
+ * deletes or resets the row. Assumes a single running dispatcher.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = OutboxProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+    private static final String METRIC_PREFIX = "shareit.outbox.";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxListener> listeners;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public void dispatch() {
+        int fetched;
+        do {
+            fetched = transactionTemplate.execute(status -> dispatchBatch());
+        } while (fetched == properties.getBatchSize());
+        refreshBacklog();
+    }
+
+    public long getPending() {
+        return pending.get();
+    }
+
+    public long getParked() {
+        return parked.get();
+    }
+
+    public long getLagMillis() {
+        return lagMillis.get();
+    }
+
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.findBatch(now, PageRequest.of(0, properties.getBatchSize()));
+        Set<String> blocked = new HashSet<>();
+        List<OutboxEvent> delivered = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (blocked.contains(aggregate)) {
+                continue;
+            }
+            try {
+                for (OutboxListener listener : listeners) {
+                    listener.onEvent(event);
+                }
+                delivered.add(event);
+                meterRegistry.timer(METRIC_PREFIX + "delivery.lag", "type", event.getType().name())
+                        .record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                blocked.add(aggregate);
+                fail(event, aggregate, now, e);
+            }
+        }
+        outboxEventRepository.deleteAllInBatch(delivered);
+        return batch.size();
+    }
+
+    private void fail(OutboxEvent event, String aggregate, LocalDateTime now, RuntimeException e) {
+        event.setAttempts(event.getAttempts() + 1);
+        meterRegistry.counter(METRIC_PREFIX + "failures", "type", event.getType().name()).increment();
+        if (event.getAttempts() >= properties.getMaxAttempts()) {
+            event.setParked(true);
+            meterRegistry.counter(METRIC_PREFIX + "parked", "type", event.getType().name()).increment();
+            log.error("Outbox event {} ({} {}) parked after {} attempts: {}", event.getId(), event.getType(),
+                    aggregate, event.getAttempts(), e.getMessage());
+            return;
+        }
+        event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+        log.warn("Outbox event {} ({} {}) failed on attempt {}, retrying at {}: {}", event.getId(),
+                event.getType(), aggregate, event.getAttempts(), event.getNextAttemptAt(), e.getMessage());
+    }
+
+    private Duration backoff(int attempts) {
+        Duration max = properties.getMaxRetryBackoff();
+        Duration backoff = properties.getRetryBackoff();
+        for (int i = 1; i < attempts && backoff.compareTo(max) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(max) < 0 ? backoff : max;
+    }
+
+    // Parked events wait for an operator, not for the dispatcher, and would pin the lag at their age
+    private void refreshBacklog() {
+        pending.set(outboxEventRepository.countByParked(false));
+        parked.set(outboxEventRepository.countByParked(true));
+        lagMillis.set(outboxEventRepository.findFirstByParkedFalseOrderByIdAsc()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.common.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Due events whose aggregate has no earlier event still waiting for a retry or parked. Held-back events are
+     * filtered here rather than skipped by the dispatcher, so they never fill a batch and stall other aggregates.
+     */
+    @Query("""
+           SELECT e FROM OutboxEvent e
+           WHERE e.parked = false AND e.nextAttemptAt <= :now
+             AND NOT EXISTS (SELECT h.id FROM OutboxEvent h
+                             WHERE h.aggregateType = e.aggregateType AND h.aggregateId = e.aggregateId
+                               AND h.id < e.id
+                               AND (h.parked = true OR h.nextAttemptAt > :now))
+           ORDER BY e.id
+           """)
+    List<OutboxEvent> findBatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    Optional<OutboxEvent> findFirstByParkedFalseOrderByIdAsc();
+
+    long countByParked(boolean parked);
+}
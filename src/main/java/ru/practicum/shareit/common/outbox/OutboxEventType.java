@@ -0,0 +1,8 @@
+package ru.practicum.shareit.common.outbox;
+
+public enum OutboxEventType {
+    BOOKING_CREATED,
+    BOOKING_APPROVED,
+    BOOKING_REJECTED,
+    COMMENT_CREATED
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.common.outbox;
+
+/**
+ * Receives outbox events in id order per aggregate. Delivery is at-least-once: an event is repeated when any
+ * listener throws or the dispatcher stops before deleting it, so implementations must be idempotent.
+ */
+public interface OutboxListener {
+    void onEvent(OutboxEvent event);
+}
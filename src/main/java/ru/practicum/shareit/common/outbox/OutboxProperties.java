@@ -0,0 +1,28 @@
+package ru.practicum.shareit.common.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = OutboxProperties.PREFIX)
+public class OutboxProperties {
+    public static final String PREFIX = "shareit.outbox";
+
+    private boolean enabled = true;
+
+    private int batchSize = 100;
+
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    // Delay before the first retry of a failed event; doubles with every further attempt up to maxRetryBackoff
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    private Duration maxRetryBackoff = Duration.ofMinutes(5);
+
+    // An event that failed this many times is parked and left for an operator
+    private int maxAttempts = 10;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.common.persistence;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+public class ConcurrencyLimitProperties {
+    public static final String PREFIX = "shareit.datasource.concurrency-limit";
+
+    private boolean enabled;
+
+    /**
+     * Connections that may be checked out at once; 0 means the configured size of the Hikari pool, or 10.
+     */
+    private int maxConcurrent;
+
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
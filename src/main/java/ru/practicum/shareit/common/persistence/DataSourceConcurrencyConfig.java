@@ -0,0 +1,104 @@
+package ru.practicum.shareit.common.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+@ConditionalOnProperty(prefix = ConcurrencyLimitProperties.PREFIX, name = "enabled", havingValue = "true")
+public class DataSourceConcurrencyConfig {
+    private static final int DEFAULT_MAX_CONCURRENT = 10;
+
+    @Bean
+    public static ConcurrencyLimitingPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        return new ConcurrencyLimitingPostProcessor(Binder.get(environment)
+                .bind(ConcurrencyLimitProperties.PREFIX, ConcurrencyLimitProperties.class)
+                .orElseGet(ConcurrencyLimitProperties::new));
+    }
+
+    /**
+     * The data source may be wrapped again later, by the query log among others, so the gauges unwrap it.
+     */
+    @Bean
+    public MeterBinder concurrencyLimitingDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            ConcurrencyLimitingDataSource limiter = unwrap(dataSource, ConcurrencyLimitingDataSource.class);
+            if (limiter != null) {
+                Gauge.builder("shareit.datasource.permits.available", limiter,
+                        ConcurrencyLimitingDataSource::getAvailablePermits).register(registry);
+                Gauge.builder("shareit.datasource.permits.waiting", limiter,
+                        ConcurrencyLimitingDataSource::getQueueLength).register(registry);
+            }
+        };
+    }
+
+    private static int maxConcurrent(DataSource dataSource, ConcurrencyLimitProperties properties) {
+        if (properties.getMaxConcurrent() > 0) {
+            return properties.getMaxConcurrent();
+        }
+        return poolSize(dataSource);
+    }
+
+    /**
+     * A routing data source, such as the replica router behind its lazy proxy, counts all of its targets:
+     * the one semaphore in front of it admits connections to every pool.
+     */
+    private static int poolSize(DataSource dataSource) {
+        AbstractRoutingDataSource routing = unwrap(dataSource, AbstractRoutingDataSource.class);
+        if (routing != null) {
+            return routing.getResolvedDataSources().values().stream()
+                    .distinct()
+                    .mapToInt(DataSourceConcurrencyConfig::poolSize)
+                    .sum();
+        }
+        // Hikari reports -1 until the pool is started and has applied its own default of 10
+        if (dataSource instanceof HikariDataSource hikari && hikari.getMaximumPoolSize() > 0) {
+            return hikari.getMaximumPoolSize();
+        }
+        return DEFAULT_MAX_CONCURRENT;
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs first, so the limiter sits directly on the pool.
+     */
+    static final class ConcurrencyLimitingPostProcessor implements BeanPostProcessor, Ordered {
+        private final ConcurrencyLimitProperties properties;
+
+        ConcurrencyLimitingPostProcessor(ConcurrencyLimitProperties properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                return new ConcurrencyLimitingDataSource(dataSource, maxConcurrent(dataSource, properties),
+                        properties.getAcquireTimeout());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
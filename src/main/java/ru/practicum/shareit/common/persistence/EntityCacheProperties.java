@@ -0,0 +1,16 @@
+package ru.practicum.shareit.common.persistence;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.entity-cache")
+public class EntityCacheProperties {
+    private long maximumSize = 10_000;
+
+    private Duration timeToLive = Duration.ofMinutes(10);
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.common.persistence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the pooled id sequences past the ids already in their tables. Items and bookings used to take ids
+ * from identity columns, so on a database created before the sequences they start at 1 and would hand out
+ * taken ids. Runs on every start; a sequence that is already ahead only loses the block it is probed with.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdSequenceAligner {
+    // Equal to allocationSize of the entities: the pooled optimizer uses the block ending at the value read
+    private static final int ALLOCATION_SIZE = 50;
+    private static final Map<String, String> TABLES = Map.of(
+            "items_seq", "items",
+            "bookings_seq", "bookings");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void align() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        TABLES.forEach((sequence, table) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            if (maxId == null || maxId == 0) {
+                return;
+            }
+            Long next = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+            if (next != null && next - ALLOCATION_SIZE < maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + ALLOCATION_SIZE));
+                log.info("Sequence {} moved past MAX(id) = {} of {}", sequence, maxId, table);
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.common.persistence;
+
+import lombok.Getter;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in a list ordered by (timestamp DESC, id DESC), such as bookings by start or
+ * comments by creation time.
+ */
+@Getter
+public final class KeysetCursor {
+    private static final KeysetCursor FIRST = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            Long.MAX_VALUE);
+    private static final String SEPARATOR = "_";
+
+    private final LocalDateTime timestamp;
+
+    private final Long id;
+
+    private KeysetCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public static KeysetCursor first() {
+        return FIRST;
+    }
+
+    public static KeysetCursor after(LocalDateTime timestamp, Long id) {
+        return new KeysetCursor(timestamp, id);
+    }
+
+    public static KeysetCursor decodeOrFirst(String token) {
+        return token == null ? FIRST : decode(token);
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException(ErrorCode.INVALID_CURSOR, token);
+        }
+    }
+
+    public String encode() {
+        String value = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.common.querylog;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL with literals replaced by {@code ?}, IN lists collapsed and whitespace normalized, so executions
+ * of the same query shape share one fingerprint whatever their arguments.
+ */
+final class QueryFingerprint {
+    private static final Pattern STRING = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?(?![\\w.])");
+    // Only after IN, so that a function of one argument such as lower(?) keeps its shape
+    private static final Pattern IN_LIST = Pattern.compile("(?i)(\\bin\\s*)\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private QueryFingerprint() {
+    }
+
+    static String of(String sql) {
+        String fingerprint = STRING.matcher(sql).replaceAll("?");
+        fingerprint = NUMBER.matcher(fingerprint).replaceAll("?");
+        fingerprint = WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+        return IN_LIST.matcher(fingerprint).replaceAll("$1(?...)");
+    }
+}
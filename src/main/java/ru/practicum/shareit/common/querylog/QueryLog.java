@@ -0,0 +1,95 @@
+package ru.practicum.shareit.common.querylog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Execution statistics per query fingerprint plus a ring buffer of the latest slow statements.
+ */
+public class QueryLog {
+    static final String NO_ORIGIN = "-";
+    private static final String OTHER = "other";
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final QueryLogProperties properties;
+    private final long slowThresholdNanos;
+    // Hibernate reuses the same SQL strings, so a statement is fingerprinted once and then looked up
+    private final Cache<String, String> fingerprints;
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlowQuery> slowQueries;
+    private final AtomicLong slowCount = new AtomicLong();
+
+    public QueryLog(QueryLogProperties properties) {
+        this.properties = properties;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.fingerprints = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxFingerprints() * 4L)
+                .build();
+        this.slowQueries = new AtomicReferenceArray<>(properties.getSlowLogSize());
+    }
+
+    public void record(String sql, String origin, long nanos, long rows) {
+        if (sql == null) {
+            return;
+        }
+        String fingerprint = fingerprints.get(sql, QueryFingerprint::of);
+        String source = origin != null ? origin : NO_ORIGIN;
+        statsOf(fingerprint).record(source, nanos, rows);
+        if (nanos >= slowThresholdNanos) {
+            SlowQuery slowQuery = new SlowQuery(Instant.now(), fingerprint, source, nanos / NANOS_PER_MILLI, rows);
+            slowQueries.set((int) (slowCount.getAndIncrement() % slowQueries.length()), slowQuery);
+        }
+    }
+
+    /**
+     * Fingerprints by total execution time, highest first.
+     */
+    public List<QueryStats.Snapshot> top(int limit) {
+        return stats.values().stream()
+                .sorted(Comparator.comparingLong(QueryStats::getTotalNanos).reversed())
+                .limit(limit)
+                .map(QueryStats::snapshot)
+                .toList();
+    }
+
+    /**
+     * Slow statements, latest first.
+     */
+    public List<SlowQuery> slowQueries() {
+        List<SlowQuery> latest = new ArrayList<>();
+        long last = slowCount.get();
+        for (long i = last - 1; i >= Math.max(0, last - slowQueries.length()); i--) {
+            SlowQuery slowQuery = slowQueries.get((int) (i % slowQueries.length()));
+            if (slowQuery != null) {
+                latest.add(slowQuery);
+            }
+        }
+        return latest;
+    }
+
+    public void reset() {
+        stats.clear();
+        for (int i = 0; i < slowQueries.length(); i++) {
+            slowQueries.set(i, null);
+        }
+    }
+
+    private QueryStats statsOf(String fingerprint) {
+        QueryStats existing = stats.get(fingerprint);
+        if (existing != null) {
+            return existing;
+        }
+        String key = stats.size() < properties.getMaxFingerprints() ? fingerprint : OTHER;
+        return stats.computeIfAbsent(key, name -> new QueryStats(name, properties.getSamples()));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.common.querylog;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = QueryLogProperties.PREFIX, name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class QueryLogConfig {
+    @Bean
+    public static QueryLog queryLog(Environment environment) {
+        return new QueryLog(Binder.get(environment)
+                .bind(QueryLogProperties.PREFIX, QueryLogProperties.class)
+                .orElseGet(QueryLogProperties::new));
+    }
+
+    @Bean
+    public static QueryTimingPostProcessor queryTimingDataSourcePostProcessor(ObjectProvider<QueryLog> queryLog) {
+        return new QueryTimingPostProcessor(queryLog);
+    }
+
+    /**
+     * Adds {@link RepositoryMethodInterceptor} to every Spring Data repository before its proxy is created.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMethodPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactory) {
+                    repositoryFactory.addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                                    proxyFactory.addAdvice(new RepositoryMethodInterceptor(
+                                            information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueryLogEndpoint queryLogEndpoint(QueryLog queryLog, EntityManagerFactory entityManagerFactory) {
+        return new QueryLogEndpoint(queryLog, entityManagerFactory);
+    }
+
+    /**
+     * Runs last: the timing wrapper is the outermost one and whatever it wraps stays reachable through
+     * {@code unwrap}.
+     */
+    static final class QueryTimingPostProcessor implements BeanPostProcessor, Ordered {
+        private final ObjectProvider<QueryLog> queryLog;
+
+        QueryTimingPostProcessor(ObjectProvider<QueryLog> queryLog) {
+            this.queryLog = queryLog;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof QueryTimingDataSource)) {
+                return new QueryTimingDataSource(dataSource, queryLog.getObject());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
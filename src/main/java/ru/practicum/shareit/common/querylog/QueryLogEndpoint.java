@@ -0,0 +1,70 @@
+package ru.practicum.shareit.common.querylog;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/queries} shows the costliest query fingerprints, the latest slow statements and the
+ * Hibernate session factory statistics; {@code POST} starts all of them over.
+ */
+@Endpoint(id = "queries")
+@RequiredArgsConstructor
+public class QueryLogEndpoint {
+    private static final int TOP_FINGERPRINTS = 50;
+
+    private final QueryLog queryLog;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public Map<String, Object> queries() {
+        Map<String, Object> queries = new LinkedHashMap<>();
+        queries.put("fingerprints", queryLog.top(TOP_FINGERPRINTS));
+        queries.put("slow", queryLog.slowQueries());
+        queries.put("hibernate", hibernate(statistics()));
+        return queries;
+    }
+
+    @WriteOperation
+    public void reset() {
+        queryLog.reset();
+        statistics().clear();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static Map<String, Object> hibernate(Statistics statistics) {
+        Map<String, Object> hibernate = new LinkedHashMap<>();
+        hibernate.put("enabled", statistics.isStatisticsEnabled());
+        // Without hibernate.generate_statistics every counter is zero, which reads like an idle application
+        if (!statistics.isStatisticsEnabled()) {
+            return hibernate;
+        }
+        hibernate.put("startTime", statistics.getStart());
+        hibernate.put("sessionsOpened", statistics.getSessionOpenCount());
+        hibernate.put("transactions", statistics.getTransactionCount());
+        hibernate.put("connectionsObtained", statistics.getConnectCount());
+        hibernate.put("statementsPrepared", statistics.getPrepareStatementCount());
+        hibernate.put("flushes", statistics.getFlushCount());
+        hibernate.put("entitiesLoaded", statistics.getEntityLoadCount());
+        hibernate.put("entitiesFetched", statistics.getEntityFetchCount());
+        hibernate.put("collectionsFetched", statistics.getCollectionFetchCount());
+        hibernate.put("optimisticFailures", statistics.getOptimisticFailureCount());
+        hibernate.put("queriesExecuted", statistics.getQueryExecutionCount());
+        hibernate.put("queryMaxTimeMillis", statistics.getQueryExecutionMaxTime());
+        hibernate.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        hibernate.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        hibernate.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        hibernate.put("secondLevelCachePuts", statistics.getSecondLevelCachePutCount());
+        return hibernate;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.common.querylog;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+public class QueryLogProperties {
+    public static final String PREFIX = "shareit.query-log";
+
+    private boolean enabled = true;
+
+    /**
+     * Statements that take at least this long to execute also go to the slow-query log.
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    private int slowLogSize = 100;
+
+    /**
+     * Distinct fingerprints tracked; statements beyond that are counted under a shared "other" entry.
+     */
+    private int maxFingerprints = 500;
+
+    /**
+     * Latest execution times kept per fingerprint for the percentiles.
+     */
+    private int samples = 1024;
+}
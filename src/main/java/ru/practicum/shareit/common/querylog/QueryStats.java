@@ -0,0 +1,71 @@
+package ru.practicum.shareit.common.querylog;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executions of one fingerprint. Percentiles are taken over a ring of the latest execution times, so
+ * recording stays a handful of atomic writes and the sorting happens only when the endpoint is read.
+ */
+public final class QueryStats {
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String fingerprint;
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final Map<String, LongAdder> origins = new ConcurrentHashMap<>();
+
+    QueryStats(String fingerprint, int samples) {
+        this.fingerprint = fingerprint;
+        this.samples = new AtomicLongArray(samples);
+    }
+
+    void record(String origin, long nanos, long rows) {
+        long position = count.getAndIncrement();
+        samples.set((int) (position % samples.length()), nanos);
+        this.rows.add(rows);
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        origins.computeIfAbsent(origin, key -> new LongAdder()).increment();
+    }
+
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    Snapshot snapshot() {
+        long executions = count.get();
+        long[] latest = new long[(int) Math.min(executions, samples.length())];
+        for (int i = 0; i < latest.length; i++) {
+            latest[i] = samples.get(i);
+        }
+        Arrays.sort(latest);
+        Map<String, Long> byOrigin = new TreeMap<>();
+        origins.forEach((origin, adder) -> byOrigin.put(origin, adder.sum()));
+        return new Snapshot(fingerprint, executions, rows.sum(),
+                executions == 0 ? 0 : totalNanos.sum() / NANOS_PER_MILLI / executions,
+                percentile(latest, 0.5), percentile(latest, 0.99), maxNanos.get() / NANOS_PER_MILLI, byOrigin);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / NANOS_PER_MILLI;
+    }
+
+    public record Snapshot(String fingerprint, long count, long rows, double meanMillis, double p50Millis,
+                           double p99Millis, double maxMillis, Map<String, Long> origins) {
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.common.querylog;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times every statement execution and counts the rows it returned or changed. Only the execute call is
+ * timed, not the reading of the result, so a slowly consumed stream does not show up as a slow query.
+ * Rows of a query are known once its result set or statement is closed, and that is when it is recorded.
+ */
+public class QueryTimingDataSource extends DelegatingDataSource {
+    private final QueryLog queryLog;
+
+    public QueryTimingDataSource(DataSource target, QueryLog queryLog) {
+        super(target);
+        this.queryLog = queryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timing(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timing(super.getConnection(username, password));
+    }
+
+    private Connection timing(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    String name = method.getName();
+                    if (result instanceof Statement statement
+                        && (name.startsWith("prepare") || name.equals("createStatement"))) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                                new Class<?>[]{method.getReturnType()}, new StatementHandler(statement, sql));
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Number count) {
+            return Math.max(0, count.longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private ResultSetHandler open;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                String origin = RepositoryMethodInterceptor.current();
+                long start = System.nanoTime();
+                Object result = QueryTimingDataSource.invoke(target, method, args);
+                long elapsed = System.nanoTime() - start;
+                if (result instanceof ResultSet resultSet) {
+                    finishOpen();
+                    open = new ResultSetHandler(resultSet, sql, origin, elapsed);
+                    return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                            open);
+                }
+                queryLog.record(sql, origin, elapsed, rows(result));
+                return result;
+            }
+            if (name.equals("close")) {
+                finishOpen();
+            }
+            return QueryTimingDataSource.invoke(target, method, args);
+        }
+
+        private void finishOpen() {
+            if (open != null) {
+                open.finish();
+                open = null;
+            }
+        }
+    }
+
+    private final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final String sql;
+        private final String origin;
+        private final long elapsed;
+        private long rows;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet target, String sql, String origin, long elapsed) {
+            this.target = target;
+            this.sql = sql;
+            this.origin = origin;
+            this.elapsed = elapsed;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryTimingDataSource.invoke(target, method, args);
+            String name = method.getName();
+            if (name.equals("next")) {
+                if ((Boolean) result) {
+                    rows++;
+                }
+            } else if (name.equals("close")) {
+                finish();
+            }
+            return result;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                queryLog.record(sql, origin, elapsed, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.common.querylog;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exposes the repository method being invoked on the current thread, e.g. {@code BookingRepository.findById},
+ * so the statements it issues can be attributed to it.
+ */
+class RepositoryMethodInterceptor implements MethodInterceptor {
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final String repository;
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+    RepositoryMethodInterceptor(Class<?> repositoryInterface) {
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    static String current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String previous = CURRENT.get();
+        CURRENT.set(names.computeIfAbsent(invocation.getMethod(), method -> repository + "." + method.getName()));
+        try {
+            return invocation.proceed();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
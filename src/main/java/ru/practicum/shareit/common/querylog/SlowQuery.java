@@ -0,0 +1,6 @@
+package ru.practicum.shareit.common.querylog;
+
+import java.time.Instant;
+
+public record SlowQuery(Instant at, String fingerprint, String origin, double millis, long rows) {
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.common.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+public enum RateLimitCategory {
+    READ,
+    WRITE,
+    SEARCH;
+
+    private static final String SEARCH_PATH = "/items/search";
+
+    public static RateLimitCategory of(HttpServletRequest request) {
+        if (request.getRequestURI().endsWith(SEARCH_PATH)) {
+            return SEARCH;
+        }
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return READ;
+        }
+        return WRITE;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.common.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/ratelimits} lists the most throttled clients.
+ */
+@Endpoint(id = "ratelimits")
+@RequiredArgsConstructor
+public class RateLimitEndpoint {
+    private static final int TOP_CLIENTS = 100;
+
+    private final RateLimiter rateLimiter;
+
+    @ReadOperation
+    public Map<String, Map<RateLimitCategory, Long>> throttled() {
+        return rateLimiter.throttledByClient(TOP_CLIENTS);
+    }
+}
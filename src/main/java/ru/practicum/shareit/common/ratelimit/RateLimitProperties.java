@@ -0,0 +1,49 @@
+package ru.practicum.shareit.common.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = RateLimitProperties.PREFIX)
+public class RateLimitProperties {
+    public static final String PREFIX = "shareit.rate-limit";
+
+    private boolean enabled = true;
+
+    /**
+     * Clients whose buckets are kept at once; the least recently used are dropped beyond that.
+     */
+    private long maximumClients = 100_000;
+
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private Budget read = new Budget(100, 50);
+
+    private Budget write = new Budget(20, 10);
+
+    private Budget search = new Budget(20, 5);
+
+    public Budget budget(RateLimitCategory category) {
+        return switch (category) {
+            case READ -> read;
+            case WRITE -> write;
+            case SEARCH -> search;
+        };
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Budget {
+        private long capacity;
+
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.common.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets per client and category, kept in a bounded cache that forgets idle clients.
+ */
+public class RateLimiter {
+    private static final String THROTTLED_METRIC = "shareit.ratelimit.throttled";
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<BucketKey, TokenBucket> buckets;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumClients() * RateLimitCategory.values().length)
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+        Gauge.builder("shareit.ratelimit.buckets", buckets, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    /**
+     * Returns 0 when the request may proceed, otherwise the nanoseconds until the client's next token.
+     */
+    public long tryAcquire(String client, RateLimitCategory category) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(new BucketKey(client, category),
+                key -> new TokenBucket(properties.budget(category), now));
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) {
+            meterRegistry.counter(THROTTLED_METRIC, "category", category.name()).increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Throttled request counts of the clients currently tracked, most throttled first.
+     */
+    public Map<String, Map<RateLimitCategory, Long>> throttledByClient(int limit) {
+        Map<String, Map<RateLimitCategory, Long>> byClient = new HashMap<>();
+        buckets.asMap().forEach((key, bucket) -> {
+            long throttled = bucket.getThrottled();
+            if (throttled > 0) {
+                byClient.computeIfAbsent(key.client(), client -> new EnumMap<>(RateLimitCategory.class))
+                        .put(key.category(), throttled);
+            }
+        });
+        Map<String, Map<RateLimitCategory, Long>> top = new LinkedHashMap<>();
+        byClient.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Map<RateLimitCategory, Long>> entry) ->
+                        entry.getValue().values().stream().mapToLong(Long::longValue).sum()).reversed())
+                .limit(limit)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    private record BucketKey(String client, RateLimitCategory category) {
+    }
+}
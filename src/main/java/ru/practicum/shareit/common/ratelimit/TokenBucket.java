@@ -0,0 +1,46 @@
+package ru.practicum.shareit.common.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket: the state is an immutable snapshot swapped with compare-and-set.
+ */
+final class TokenBucket {
+    private final long capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+    private final LongAdder throttled = new LongAdder();
+
+    TokenBucket(RateLimitProperties.Budget budget, long now) {
+        this.capacity = budget.getCapacity();
+        this.tokensPerNano = budget.getRefillPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    /**
+     * Takes a token and returns 0, or returns how many nanoseconds remain until a token is available.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            State current = state.get();
+            long updatedAt = Math.max(current.updatedAt(), now);
+            double tokens = Math.min(capacity, current.tokens() + (updatedAt - current.updatedAt()) * tokensPerNano);
+            if (tokens < 1) {
+                throttled.increment();
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, updatedAt))) {
+                return 0;
+            }
+        }
+    }
+
+    long getThrottled() {
+        return throttled.sum();
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+}
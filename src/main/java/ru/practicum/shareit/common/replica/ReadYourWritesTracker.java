@@ -0,0 +1,41 @@
+package ru.practicum.shareit.common.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Remembers clients that wrote recently so their reads stay on the primary until replicas have the change.
+ * The client of the current request is bound to the thread by {@link ReplicaClientInterceptor}.
+ */
+public class ReadYourWritesTracker {
+    private final ThreadLocal<String> currentClient = new ThreadLocal<>();
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(ReplicaProperties properties) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumClients())
+                .expireAfterWrite(properties.getReadYourWritesWindow())
+                .build();
+    }
+
+    public void bind(String client) {
+        currentClient.set(client);
+    }
+
+    public void clear() {
+        currentClient.remove();
+    }
+
+    public String currentClient() {
+        return currentClient.get();
+    }
+
+    public void recordWrite(String client) {
+        recentWriters.put(client, Boolean.TRUE);
+    }
+
+    public boolean isPinned() {
+        String client = currentClient.get();
+        return client != null && recentWriters.getIfPresent(client) != null;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.common.replica;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import ru.practicum.shareit.common.web.ClientKeys;
+
+/**
+ * Binds the caller to the request thread for {@link ReadYourWritesTracker}.
+ */
+@RequiredArgsConstructor
+public class ReplicaClientInterceptor implements AsyncHandlerInterceptor {
+    private final ReadYourWritesTracker tracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        tracker.bind(ClientKeys.of(request));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        tracker.clear();
+    }
+
+    // A streamed response continues on another thread; this one goes back to the container
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        tracker.clear();
+    }
+}
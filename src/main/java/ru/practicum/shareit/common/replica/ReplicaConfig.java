@@ -0,0 +1,109 @@
+package ru.practicum.shareit.common.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured data source with one that routes read-only transactions to replicas.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = ReplicaProperties.PREFIX, name = "enabled", havingValue = "true")
+public class ReplicaConfig {
+    private static final String SCHEMA = "schema.sql";
+
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties dataSourceProperties, ReplicaProperties properties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("shareit-primary");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReplicaProperties.Endpoint endpoint = properties.getReplicas().get(i);
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(endpoint.getUrl())
+                    .username(endpoint.getUsername())
+                    .password(endpoint.getPassword())
+                    .build();
+            replica.setPoolName("shareit-replica-" + i);
+            replica.setReadOnly(true);
+            if (properties.isInitializeSchema()) {
+                new ResourceDatabasePopulator(new ClassPathResource(SCHEMA)).execute(replica);
+            }
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaSet(primary, replicas, properties);
+    }
+
+    @Bean
+    public SchedulingConfigurer replicaProbeSchedule(ReplicaSet replicaSet, ReplicaProperties properties) {
+        return registrar -> registrar.addFixedDelayTask(replicaSet::probe, properties.getProbeInterval());
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaProperties properties) {
+        return new ReadYourWritesTracker(properties);
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaSet replicaSet, ReadYourWritesTracker tracker) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaSet, tracker));
+    }
+
+    /**
+     * With the default of holding the connection until the session closes, a request that first reads in a
+     * read-only transaction and then writes would write through the replica connection it already holds.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    @Bean
+    public WebMvcConfigurer replicaWebMvcConfigurer(ReadYourWritesTracker tracker) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ReplicaClientInterceptor(tracker));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaLagMetrics(ReplicaSet replicaSet) {
+        return registry -> replicaSet.getReplicas().keySet().forEach(replica ->
+                Gauge.builder("shareit.datasource.replica.lag", replicaSet, set -> lag(set, replica))
+                        .tag("replica", replica)
+                        .baseUnit("milliseconds")
+                        .register(registry));
+    }
+
+    private static double lag(ReplicaSet replicaSet, String replica) {
+        long lag = replicaSet.getLagMillis(replica);
+        return lag == Long.MAX_VALUE ? Double.NaN : lag;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.common.replica;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = ReplicaProperties.PREFIX)
+public class ReplicaProperties {
+    public static final String PREFIX = "shareit.datasource.replica";
+
+    private boolean enabled;
+
+    private List<Endpoint> replicas = new ArrayList<>();
+
+    /**
+     * A replica further behind the primary than this gets no reads until it catches up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private Duration probeInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long a client reads from the primary after its own write committed.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(10);
+
+    private long maximumClients = 100_000;
+
+    /**
+     * Runs schema.sql on every replica at startup; only for local databases that are not fed by replication.
+     */
+    private boolean initializeSchema;
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.common.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.common.persistence.AfterCommit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to a replica within the allowed lag, everything else to the
+ * primary. A client whose write committed within the read-your-writes window keeps reading from the primary.
+ * Has to sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, otherwise the
+ * connection is taken before the transaction is marked read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicaSet replicaSet;
+    private final ReadYourWritesTracker tracker;
+
+    public ReplicaRoutingDataSource(ReplicaSet replicaSet, ReadYourWritesTracker tracker) {
+        this.replicaSet = replicaSet;
+        this.tracker = tracker;
+        Map<Object, Object> targets = new HashMap<>(replicaSet.getReplicas());
+        targets.put(ReplicaSet.PRIMARY, replicaSet.getPrimary());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(replicaSet.getPrimary());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            String client = tracker.currentClient();
+            if (client != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                AfterCommit.run(() -> tracker.recordWrite(client));
+            }
+            return ReplicaSet.PRIMARY;
+        }
+        if (tracker.isPinned()) {
+            return ReplicaSet.PRIMARY;
+        }
+        String replica = replicaSet.pickReplica();
+        return replica != null ? replica : ReplicaSet.PRIMARY;
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.common.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The primary and its replicas with their replication lag. Lag is measured pt-heartbeat style: every probe
+ * writes the current time into {@code replica_heartbeat} on the primary and reads back the value each replica
+ * has received, so it also covers replicas whose replication is silently stuck.
+ */
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+    static final String PRIMARY = "primary";
+    private static final int HEARTBEAT_ID = 1;
+    private static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    @Getter
+    private final DataSource primary;
+    @Getter
+    private final Map<String, DataSource> replicas;
+    private final long maxLagMillis;
+
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaSet(DataSource primary, Map<String, DataSource> replicas, ReplicaProperties properties) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        replicas.keySet().forEach(name -> lagMillis.put(name, UNKNOWN_LAG));
+    }
+
+    /**
+     * A replica within the allowed lag, taken in turn, or null when every replica is too far behind.
+     */
+    public String pickReplica() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    public long getLagMillis(String replica) {
+        return lagMillis.getOrDefault(replica, UNKNOWN_LAG);
+    }
+
+    public void probe() {
+        long now = System.currentTimeMillis();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(primary);
+            if (jdbcTemplate.update("UPDATE replica_heartbeat SET beat = ? WHERE id = ?", now, HEARTBEAT_ID) == 0) {
+                jdbcTemplate.update("INSERT INTO replica_heartbeat (id, beat) VALUES (?, ?)", HEARTBEAT_ID, now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to write the heartbeat on the primary: {}", e.getMessage());
+        }
+        List<String> withinLag = new ArrayList<>();
+        replicas.forEach((name, replica) -> {
+            long lag = lag(name, replica, now);
+            lagMillis.put(name, lag);
+            if (lag <= maxLagMillis) {
+                withinLag.add(name);
+            }
+        });
+        if (withinLag.size() != healthy.size()) {
+            log.info("Replicas within {} ms lag: {} of {}", maxLagMillis, withinLag.size(), replicas.size());
+        }
+        healthy = List.copyOf(withinLag);
+    }
+
+    @Override
+    public void close() {
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+        if (primary instanceof HikariDataSource hikari) {
+            hikari.close();
+        }
+    }
+
+    private static long lag(String name, DataSource replica, long now) {
+        try {
+            List<Long> beats = new JdbcTemplate(replica).queryForList(
+                    "SELECT beat FROM replica_heartbeat WHERE id = ?", Long.class, HEARTBEAT_ID);
+            return beats.isEmpty() ? UNKNOWN_LAG : Math.max(0, now - beats.get(0));
+        } catch (DataAccessException e) {
+            log.warn("Replica {} is unavailable: {}", name, e.getMessage());
+            return UNKNOWN_LAG;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.common.validation;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ErrorCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates every element of a batch request and reports all violations at once, prefixed with the element index.
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkValidator {
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    private final Validator validator;
+
+    public <T> void validate(List<T> objects, Class<?>... groups) {
+        if (objects == null || objects.isEmpty() || objects.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException(ErrorCode.INVALID_BATCH_SIZE, MAX_BATCH_SIZE);
+        }
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i++) {
+            if (objects.get(i) == null) {
+                errors.add("[" + i + "] must not be null");
+                continue;
+            }
+            for (ConstraintViolation<T> violation : validator.validate(objects.get(i), groups)) {
+                errors.add("[" + i + "] " + violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new BadRequestException(ErrorCode.INVALID_BATCH, String.join("; ", errors));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.common.web;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Adds a low-cardinality {@code state} tag to http.server.requests so booking list latency can be split by
+ * {@link BookingState}. Requests to other endpoints are tagged {@code none}.
+ */
+@Component
+public class BookingStateObservationConvention extends DefaultServerRequestObservationConvention {
+    private static final String STATE = "state";
+    private static final String NONE = "none";
+    private static final Set<String> BOOKING_LISTS = Set.of("/bookings", "/bookings/owner");
+    private static final Set<String> STATES = Arrays.stream(BookingState.values())
+            .map(Enum::name)
+            .collect(Collectors.toSet());
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(STATE, state(context));
+    }
+
+    private static String state(ServerRequestObservationContext context) {
+        String pathPattern = context.getPathPattern();
+        if (pathPattern == null || !BOOKING_LISTS.contains(pathPattern)) {
+            return NONE;
+        }
+        String state = context.getCarrier().getParameter(STATE);
+        if (state == null) {
+            return BookingState.ALL.name();
+        }
+        return STATES.contains(state) ? state : BookingState.UNSUPPORTED_STATUS.name();
+    }
+}
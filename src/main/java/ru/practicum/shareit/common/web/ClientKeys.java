@@ -0,0 +1,17 @@
+package ru.practicum.shareit.common.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public final class ClientKeys {
+
+    private ClientKeys() {
+    }
+
+    /**
+     * The user id from the header, or the remote address for anonymous callers.
+     */
+    public static String of(HttpServletRequest request) {
+        String userId = request.getHeader(HeaderConstants.USER_ID);
+        return userId != null ? userId : "ip:" + request.getRemoteAddr();
+    }
+}
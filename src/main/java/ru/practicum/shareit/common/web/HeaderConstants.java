@@ -6,4 +6,6 @@ public final class HeaderConstants {
     }
 
     public static final String USER_ID = "X-Sharer-User-Id";
+
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
 }
@@ -1,7 +1,7 @@
 package ru.practicum.shareit.exception;
 
-public class BadRequestException extends RuntimeException {
-    public BadRequestException(String message) {
-        super(message);
+public class BadRequestException extends ShareItException {
+    public BadRequestException(ErrorCode code, Object... args) {
+        super(code, args);
     }
 }
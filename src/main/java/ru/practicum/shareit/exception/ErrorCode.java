@@ -0,0 +1,58 @@
+package ru.practicum.shareit.exception;
+
+import lombok.Getter;
+import org.slf4j.helpers.MessageFormatter;
+
+/**
+ * Stable identifier of an error reported to clients, with the message template its arguments are formatted into.
+ */
+@Getter
+public enum ErrorCode {
+    // 404
+    USER_NOT_FOUND("Пользователь не найден id: {}"),
+    ITEM_NOT_FOUND("Вещь не найдена id: {}"),
+    REQUEST_NOT_FOUND("Запрос не найден id: {}"),
+    BOOKING_NOT_FOUND("There is no Booking with Id {}"),
+    ITEM_NOT_OWNED("Не возможно обновить вещь с пользователя id: {} Не найдена вещь"),
+    BOOKING_NOT_VISIBLE("Only the Booking author can view the booking details or the owner of Item"),
+    OWN_ITEM_BOOKING("Not possible create booking - User cannot book a thing belonging to him"),
+
+    // 400
+    INVALID_ARGUMENT("{}"),
+    INVALID_PAGINATION("Invalid pagination parameters: from={}, size={}"),
+    INVALID_CURSOR("Invalid cursor: {}"),
+    INVALID_PERIOD("Invalid availability period: from={}, to={}"),
+    INVALID_BATCH_SIZE("Batch must contain from 1 to {} elements"),
+    INVALID_BATCH("{}"),
+    UNKNOWN_STATE("Unknown state: UNSUPPORTED_STATUS"),
+    NOT_ITEM_OWNER("Not possible create booking - Not found Booking with Id {} for user with an id {}"),
+    BOOKING_ALREADY_DECIDED("It is not possible to confirm the Booking - "
+                            + "the booking has already been confirmed or declined"),
+    ITEM_UNAVAILABLE("Not possible create Booking - this item is not available"),
+    INVALID_BOOKING_PERIOD("Not possible create Booking - "
+                           + "the end date of the booking cannot be earlier than the start date of the booking"),
+    COMMENT_NOT_ALLOWED("Item has not been rented by the user or the rental of the item has not yet been completed"),
+
+    // 409
+    EMAIL_TAKEN("Пользователь с email {} уже зарегистрирован"),
+    BOOKING_OVERLAP("Not possible book Item with Id {} - the item is already booked for the requested period"),
+    BOOKING_DECIDED_CONCURRENTLY("It is not possible to confirm the Booking - "
+                                 + "the booking has been confirmed or declined concurrently"),
+    CONCURRENT_MODIFICATION("The object was modified by another request, retry the operation"),
+
+    // 429
+    TOO_MANY_REQUESTS("Too many requests, retry after {} s"),
+
+    // 500
+    INTERNAL_ERROR("{}");
+
+    private final String template;
+
+    ErrorCode(String template) {
+        this.template = template;
+    }
+
+    public String format(Object... args) {
+        return MessageFormatter.arrayFormat(template, args).getMessage();
+    }
+}
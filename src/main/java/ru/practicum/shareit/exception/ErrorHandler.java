@@ -1,58 +1,129 @@
 package ru.practicum.shareit.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client errors are counted per code and logged at most {@value #LOG_LIMIT} times per code a second, with
+ * the number of skipped ones; server errors are always logged with their stack trace.
+ */
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class ErrorHandler {
+    private static final String ERRORS_METRIC = "shareit.errors";
+    private static final int LOG_LIMIT = 5;
+    private static final long LOG_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<ErrorCode, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<ErrorCode, LogWindow> logWindows = new ConcurrentHashMap<>();
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleValidationException(final ValidationException exception) {
-        log.error("Validation error {}", exception.getMessage());
-        return new ErrorResponse(
-                exception.getMessage()
-        );
+        return reject(exception.getCode(), exception.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(final OptimisticLockingFailureException exception) {
+        return reject(ErrorCode.CONCURRENT_MODIFICATION, ErrorCode.CONCURRENT_MODIFICATION.format(),
+                HttpStatus.CONFLICT);
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFoundException(final NotFoundException exception) {
-        log.error("Object unknown {}", exception.getMessage());
-        return new ErrorResponse(
-                exception.getMessage()
-        );
+        return reject(exception.getCode(), exception.getMessage(), HttpStatus.NOT_FOUND);
     }
 
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMethodArgumentNotValidException(final MethodArgumentNotValidException exception) {
-        log.error("Validation error {}", exception.getMessage());
-        return new ErrorResponse(
-                exception.getMessage()
-        );
+        return reject(ErrorCode.INVALID_ARGUMENT, exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleMissingRequestHeaderException(final MissingRequestHeaderException exception) {
+        return reject(ErrorCode.INVALID_ARGUMENT, exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleMethodArgumentTypeMismatchException(
+            final MethodArgumentTypeMismatchException exception) {
+        return reject(ErrorCode.INVALID_ARGUMENT, exception.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleServerError(final Throwable exception) {
-        log.error("Server error {}", exception.getMessage());
-        return new ErrorResponse(
-                exception.getMessage()
-        );
+        log.error("Server error {}", exception.getMessage(), exception);
+        count(ErrorCode.INTERNAL_ERROR, HttpStatus.INTERNAL_SERVER_ERROR);
+        return new ErrorResponse(ErrorCode.INTERNAL_ERROR, exception.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleBadRequestException(final BadRequestException exception) {
-        log.error("Validation error {}", exception.getMessage());
-        return new ErrorResponse(
-                exception.getMessage()
-        );
+        return reject(exception.getCode(), exception.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    private ErrorResponse reject(ErrorCode code, String message, HttpStatus status) {
+        count(code, status);
+        long skipped = logWindows.computeIfAbsent(code, key -> new LogWindow()).acquire(System.nanoTime());
+        if (skipped == 0) {
+            log.warn("{} {}: {}", status.value(), code, message);
+        } else if (skipped > 0) {
+            log.warn("{} {}: {} ({} more not logged)", status.value(), code, message, skipped);
+        }
+        return new ErrorResponse(code, message);
+    }
+
+    private void count(ErrorCode code, HttpStatus status) {
+        counters.computeIfAbsent(code, key -> meterRegistry.counter(ERRORS_METRIC,
+                "code", key.name(),
+                "status", String.valueOf(status.value()))).increment();
+    }
+
+    private static final class LogWindow {
+        private final AtomicLong start = new AtomicLong(System.nanoTime() - LOG_WINDOW_NANOS);
+        private final AtomicInteger logged = new AtomicInteger();
+        private final AtomicLong skipped = new AtomicLong();
+
+        /**
+         * Number of errors skipped since the last logged one, or -1 when this one should be skipped too.
+         */
+        long acquire(long now) {
+            long windowStart = start.get();
+            if (now - windowStart >= LOG_WINDOW_NANOS && start.compareAndSet(windowStart, now)) {
+                logged.set(0);
+            }
+            if (logged.incrementAndGet() > LOG_LIMIT) {
+                skipped.incrementAndGet();
+                return -1;
+            }
+            return skipped.getAndSet(0);
+        }
     }
 }
@@ -4,9 +4,12 @@ import lombok.Getter;
 
 @Getter
 public class ErrorResponse {
+    private final ErrorCode code;
+
     private final String error;
 
-    public ErrorResponse(String error) {
+    public ErrorResponse(ErrorCode code, String error) {
+        this.code = code;
         this.error = error;
     }
 }
@@ -1,7 +1,7 @@
 package ru.practicum.shareit.exception;
 
-public class NotFoundException extends RuntimeException {
-    public NotFoundException(String message) {
-        super(message);
+public class NotFoundException extends ShareItException {
+    public NotFoundException(ErrorCode code, Object... args) {
+        super(code, args);
     }
 }
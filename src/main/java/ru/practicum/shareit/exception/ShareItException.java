@@ -0,0 +1,24 @@
+package ru.practicum.shareit.exception;
+
+import lombok.Getter;
+
+/**
+ * Expected outcome of a request that is reported to the client. Thrown on ordinary paths such as a
+ * lookup of an unknown id, so it records no stack trace and formats its message only when asked.
+ */
+@Getter
+public abstract class ShareItException extends RuntimeException {
+    private final ErrorCode code;
+    private final transient Object[] args;
+
+    protected ShareItException(ErrorCode code, Object... args) {
+        super(null, null, false, false);
+        this.code = code;
+        this.args = args;
+    }
+
+    @Override
+    public String getMessage() {
+        return code.format(args);
+    }
+}
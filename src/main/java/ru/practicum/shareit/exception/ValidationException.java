@@ -1,7 +1,7 @@
 package ru.practicum.shareit.exception;
 
-public class ValidationException extends RuntimeException {
-    public ValidationException(String message) {
-        super(message);
+public class ValidationException extends ShareItException {
+    public ValidationException(ErrorCode code, Object... args) {
+        super(code, args);
     }
 }
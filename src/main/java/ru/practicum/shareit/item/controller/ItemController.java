@@ -2,14 +2,20 @@ package ru.practicum.shareit.item.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.comments.dto.CommentDto;
+import ru.practicum.shareit.comments.dto.CommentPage;
 import ru.practicum.shareit.common.validation.validation.Create;
 import ru.practicum.shareit.common.web.HeaderConstants;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -24,8 +30,13 @@ public class ItemController {
     }
 
     @GetMapping("/{id}")
-    public ItemDto getById(@PathVariable long id) {
-        return itemService.getById(id);
+    public ItemDto getById(@PathVariable long id,
+                           @RequestHeader(value = HeaderConstants.USER_ID, required = false) Long userId,
+                           WebRequest request) {
+        if (request.checkNotModified(itemService.getETag(id, userId))) {
+            return null;
+        }
+        return itemService.getById(id, userId);
     }
 
     @PostMapping
@@ -34,6 +45,12 @@ public class ItemController {
         return itemService.create(itemDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> createAll(@RequestHeader(HeaderConstants.USER_ID) Long userId,
+                                   @RequestBody List<ItemDto> itemDtos) {
+        return itemService.createAll(itemDtos, userId);
+    }
+
     @PatchMapping("/{id}")
     public ItemDto update(@RequestBody ItemDto itemDto, @PathVariable Long id,
                           @RequestHeader(HeaderConstants.USER_ID) Long userId) {
@@ -46,8 +63,31 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam String text) {
-        return itemService.search(text);
+    public List<ItemDto> search(@RequestParam String text,
+                                @RequestParam(defaultValue = "0") int from,
+                                @RequestParam(defaultValue = "20") int size,
+                                @RequestParam(defaultValue = "false") boolean byPopularity) {
+        return itemService.search(text, from, size, byPopularity);
+    }
+
+    @GetMapping("/{id}/availability")
+    public List<AvailabilityWindowDto> getAvailability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(id, from, to);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable Long itemId,
+                                                        @RequestParam(defaultValue = "20") int size,
+                                                        @RequestParam(required = false) String cursor) {
+        CommentPage page = itemService.getComments(itemId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(HeaderConstants.NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(page.getComments());
     }
 
     @PostMapping("/{itemId}/comment")
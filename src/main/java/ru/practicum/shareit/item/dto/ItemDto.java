@@ -30,5 +30,9 @@ public class ItemDto {
 
     private BookingForItemDto nextBooking;
 
+    private Long requestId;
+
+    private Long commentCount;
+
     private List<CommentDto> comments;
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.dto;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
@@ -8,8 +9,12 @@ import java.util.List;
 @Mapper(componentModel = "spring")
 public interface ItemMapper {
 
+    @Mapping(target = "commentCount", ignore = true)
+    @Mapping(target = "itemRequest", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Item itemDtoToItemModel(ItemDto itemDto);
 
+    @Mapping(source = "itemRequest.id", target = "requestId")
     ItemDto itemModelToItemDto(Item item);
 
     List<ItemDto> mapItemsToDtos(List<Item> item);
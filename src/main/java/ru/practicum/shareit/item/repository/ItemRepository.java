@@ -1,15 +1,24 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import ru.practicum.shareit.item.model.Item;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwnerId(Long ownerId);
 
+    List<Item> findAllByAvailableTrue();
+
+    List<Item> findAllByItemRequestIdIn(Collection<Long> requestIds);
+
     @Query("""
        SELECT i FROM Item i
        WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%'))
@@ -17,4 +26,36 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
          AND i.available = true
        """)
     List<Item> findBySearchText(@Param("text") String text);
+
+    /**
+     * Changes the ETag of items whose comment preview shows the author's name.
+     */
+    @Modifying
+    @Query("""
+           UPDATE Item i SET i.version = i.version + 1
+           WHERE i.id IN (SELECT c.item.id FROM Comment c WHERE c.author.id = :authorId)
+           """)
+    int incrementVersionCommentedBy(@Param("authorId") Long authorId);
+
+    /**
+     * Takes the author's comments out of the counters before the database cascades their deletion. The comment
+     * preview changes with them, and so does the ETag.
+     */
+    @Modifying
+    @Query("""
+           UPDATE Item i
+           SET i.commentCount = i.commentCount
+                                - (SELECT COUNT(c) FROM Comment c WHERE c.item.id = i.id AND c.author.id = :authorId),
+               i.version = i.version + 1
+           WHERE i.id IN (SELECT c.item.id FROM Comment c WHERE c.author.id = :authorId)
+           """)
+    int decrementCommentCountCommentedBy(@Param("authorId") Long authorId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.persistence.AfterCommit;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Busy periods per item: APPROVED and WAITING bookings merged into disjoint, ordered
+ * {@code [start, end)} pairs of epoch milliseconds. Free windows are the gaps between them.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemAvailabilityCalendar {
+    private static final Set<BookingStatus> BUSY = Set.of(BookingStatus.APPROVED, BookingStatus.WAITING);
+    private static final int MAXIMUM_ITEMS = 10_000;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(30);
+
+    private final BookingRepository bookingRepository;
+
+    private final Cache<Long, long[]> busy = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_ITEMS)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+    // Bumped per item on every change to its bookings. An evicted counter is replaced by a new object, which a
+    // load in flight also treats as a change
+    private final Cache<Long, AtomicLong> generations = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_ITEMS)
+            .expireAfterAccess(EXPIRE_AFTER_WRITE)
+            .build();
+
+    public List<AvailabilityWindowDto> freeWindows(Long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now();
+        long cursor = toEpochMilli(from.isBefore(now) ? now : from);
+        long until = toEpochMilli(to);
+        List<AvailabilityWindowDto> windows = new ArrayList<>();
+        if (cursor >= until) {
+            return windows;
+        }
+        long[] periods = get(itemId, now);
+        for (int i = firstEndingAfter(periods, cursor); i < periods.length / 2; i++) {
+            long start = periods[2 * i];
+            if (start >= until) {
+                break;
+            }
+            if (start > cursor) {
+                windows.add(new AvailabilityWindowDto(toDateTime(cursor), toDateTime(start)));
+            }
+            cursor = periods[2 * i + 1];
+        }
+        if (cursor < until) {
+            windows.add(new AvailabilityWindowDto(toDateTime(cursor), toDateTime(until)));
+        }
+        return windows;
+    }
+
+    public void evict(Long itemId) {
+        AfterCommit.run(() -> {
+            generationOf(itemId).incrementAndGet();
+            busy.invalidate(itemId);
+        });
+    }
+
+    private long[] get(Long itemId, LocalDateTime now) {
+        long[] periods = busy.getIfPresent(itemId);
+        if (periods != null) {
+            return periods;
+        }
+        AtomicLong generation = generationOf(itemId);
+        long loadedAt = generation.get();
+        periods = merge(bookingRepository.findIntervalsByItemId(itemId, BUSY, now));
+        // A booking of this item created or decided while we were reading may be missing from the result.
+        // Checking after the put also catches an eviction that ran between the check and the put
+        busy.put(itemId, periods);
+        if (generations.getIfPresent(itemId) != generation || generation.get() != loadedAt) {
+            busy.invalidate(itemId);
+        }
+        return periods;
+    }
+
+    private AtomicLong generationOf(Long itemId) {
+        return generations.get(itemId, id -> new AtomicLong());
+    }
+
+    /**
+     * Single pass over intervals ordered by start: each one either extends the current period or opens a new one.
+     */
+    static long[] merge(List<BookingInterval> intervals) {
+        long[] periods = new long[intervals.size() * 2];
+        int size = 0;
+        for (BookingInterval interval : intervals) {
+            long start = toEpochMilli(interval.start());
+            long end = toEpochMilli(interval.end());
+            if (size > 0 && start <= periods[size - 1]) {
+                periods[size - 1] = Math.max(periods[size - 1], end);
+            } else {
+                periods[size++] = start;
+                periods[size++] = end;
+            }
+        }
+        return Arrays.copyOf(periods, size);
+    }
+
+    /**
+     * Index of the first period ending after {@code time}; ends are ascending because periods are disjoint.
+     */
+    private static int firstEndingAfter(long[] periods, long time) {
+        int low = 0;
+        int high = periods.length / 2;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (periods[2 * middle + 1] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.persistence.AfterCommit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached last and next APPROVED booking per item. An entry expires when its next booking starts,
+ * so the timeline rolls forward on the first read after that moment.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemBookingTimeline {
+    private final BookingRepository bookingRepository;
+    private final BookingMapper bookingMapper;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public Map<Long, Entry> get(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Entry> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            Entry entry = entries.get(itemId);
+            if (entry == null || entry.isExpired(now)) {
+                missing.add(itemId);
+            } else {
+                result.put(itemId, entry);
+            }
+        }
+        if (!missing.isEmpty()) {
+            result.putAll(load(missing, now));
+        }
+        return result;
+    }
+
+    public Entry get(Long itemId) {
+        return get(List.of(itemId)).get(itemId);
+    }
+
+    public void onApproved(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        BookingForItemDto dto = bookingMapper.bookingModelToBookingForItemDto(booking);
+        AfterCommit.run(() -> {
+            generation.incrementAndGet();
+            entries.computeIfPresent(itemId, (id, entry) -> entry.with(dto, LocalDateTime.now()));
+        });
+    }
+
+    public void evict(Long itemId) {
+        AfterCommit.run(() -> {
+            generation.incrementAndGet();
+            entries.remove(itemId);
+        });
+    }
+
+    private Map<Long, Entry> load(List<Long> itemIds, LocalDateTime now) {
+        long loadedAt = generation.get();
+        Map<Long, Entry> loaded = new HashMap<>();
+        for (Long itemId : itemIds) {
+            loaded.put(itemId, Entry.EMPTY);
+        }
+        List<Booking> bookings = bookingRepository.findLastAndNextByItemIdIn(itemIds, BookingStatus.APPROVED, now);
+        for (BookingForItemDto booking : bookingMapper.mapBookingsToBookingForItemDtos(bookings)) {
+            loaded.computeIfPresent(booking.getItemId(), (id, entry) -> entry.with(booking, now));
+        }
+        // A booking approved while we were reading may be missing from the result, so do not cache it
+        if (generation.get() == loadedAt) {
+            entries.putAll(loaded);
+        }
+        return loaded;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private static final Entry EMPTY = new Entry(null, null);
+
+        private final BookingForItemDto lastBooking;
+
+        private final BookingForItemDto nextBooking;
+
+        boolean isExpired(LocalDateTime now) {
+            return nextBooking != null && !now.isBefore(nextBooking.getStart());
+        }
+
+        Entry with(BookingForItemDto booking, LocalDateTime now) {
+            BookingForItemDto last = lastBooking;
+            BookingForItemDto next = nextBooking;
+            if (booking.getStart().isBefore(now) && (last == null || booking.getStart().isAfter(last.getStart()))) {
+                last = booking;
+            }
+            if (booking.getStart().isAfter(now) && (next == null || booking.getStart().isBefore(next.getStart()))) {
+                next = booking;
+            }
+            return new Entry(last, next);
+        }
+    }
+}
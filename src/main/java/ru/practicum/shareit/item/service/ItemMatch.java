@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.service;
+
+/**
+ * Item found by a search query together with its relevance to the query.
+ */
+public record ItemMatch(long id, double relevance) {
+    private static final double NAME_WEIGHT = 10;
+
+    /**
+     * A match in the name outweighs any number of matches in the description; repeated matches add
+     * logarithmically. All arguments are expected in lower case.
+     */
+    static double score(String query, String name, String description) {
+        return NAME_WEIGHT * frequency(query, name) + frequency(query, description);
+    }
+
+    ItemMatch boosted(double boost) {
+        return new ItemMatch(id, relevance + boost);
+    }
+
+    private static double frequency(String query, String text) {
+        int count = 0;
+        for (int i = text.indexOf(query); i >= 0; i = text.indexOf(query, i + query.length())) {
+            count++;
+        }
+        return count == 0 ? 0 : 1 + Math.log(count);
+    }
+}
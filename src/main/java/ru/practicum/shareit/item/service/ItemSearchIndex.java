@@ -0,0 +1,256 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.persistence.AfterCommit;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over name and description of available items.
+ * Returns exactly the ids that {@link ItemRepository#findBySearchText} would match.
+ * <p>
+ * Every instance keeps its own index and hears only its own commits, so it assumes a single running instance:
+ * behind a load balancer an item changed through one instance would stay stale in the others until they restart.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuilding = new Object();
+    private Index current = new Index();
+    // Changes committed while a rebuild reads the table, replayed over what it read; a null document is a removal
+    private Map<Long, Document> journal;
+    private volatile boolean ready;
+
+    /**
+     * Reads the table without holding up searches or commits, then swaps the new index in. Changes committed
+     * meanwhile may be missing from what was read, so they are journaled and applied again before the swap.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuilding) {
+            write(() -> journal = new HashMap<>());
+            Index rebuilt = new Index();
+            try {
+                for (Item item : itemRepository.findAllByAvailableTrue()) {
+                    rebuilt.add(item.getId(), document(item));
+                }
+            } catch (RuntimeException e) {
+                write(() -> journal = null);
+                throw e;
+            }
+            write(() -> {
+                journal.forEach(rebuilt::replace);
+                journal = null;
+                current = rebuilt;
+                ready = true;
+            });
+            log.info("Item search index rebuilt: {} items, {} trigrams", rebuilt.documents.size(),
+                    rebuilt.postings.size());
+        }
+    }
+
+    /**
+     * Whether {@link #search} can answer the query; shorter texts and LIKE wildcards go to the database.
+     */
+    public boolean supports(String text) {
+        return ready && text.length() >= GRAM && text.indexOf('%') < 0 && text.indexOf('_') < 0
+               && text.indexOf('\\') < 0;
+    }
+
+    public List<ItemMatch> search(String text) {
+        String query = normalize(text);
+        Set<String> grams = trigrams(query);
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[grams.size()];
+            int i = 0;
+            for (String gram : grams) {
+                PostingList list = current.postings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                lists[i++] = list;
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            List<ItemMatch> result = new ArrayList<>();
+            for (int j = 0; j < lists[0].size; j++) {
+                long id = lists[0].ids[j];
+                if (!containsInAll(lists, id)) {
+                    continue;
+                }
+                Document document = current.documents.get(id);
+                if (document.matches(query)) {
+                    result.add(new ItemMatch(id, document.relevance(query)));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Relevance of an item the database matched, scored the same way as an indexed one.
+     */
+    public static ItemMatch match(Item item, String text) {
+        return new ItemMatch(item.getId(), ItemMatch.score(normalize(text), normalize(item.getName()),
+                normalize(item.getDescription())));
+    }
+
+    public void index(Item item) {
+        Long id = item.getId();
+        if (!item.isAvailable()) {
+            remove(id);
+            return;
+        }
+        Document document = document(item);
+        AfterCommit.run(() -> write(() -> apply(id, document)));
+    }
+
+    public void remove(Long id) {
+        AfterCommit.run(() -> write(() -> apply(id, null)));
+    }
+
+    private void apply(long id, Document document) {
+        current.replace(id, document);
+        if (journal != null) {
+            journal.put(id, document);
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Document document(Item item) {
+        return new Document(normalize(item.getName()), normalize(item.getDescription()));
+    }
+
+    private static boolean containsInAll(PostingList[] lists, long id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (!lists[i].contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Document(String name, String description) {
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        double relevance(String query) {
+            return ItemMatch.score(query, name, description);
+        }
+
+        Set<String> trigrams() {
+            Set<String> grams = ItemSearchIndex.trigrams(name);
+            grams.addAll(ItemSearchIndex.trigrams(description));
+            return grams;
+        }
+    }
+
+    private static final class Index {
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        void replace(long id, Document document) {
+            delete(id);
+            if (document != null) {
+                add(id, document);
+            }
+        }
+
+        void add(long id, Document document) {
+            documents.put(id, document);
+            for (String gram : document.trigrams()) {
+                postings.computeIfAbsent(gram, key -> new PostingList()).add(id);
+            }
+        }
+
+        void delete(long id) {
+            Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (String gram : document.trigrams()) {
+                PostingList list = postings.get(gram);
+                list.remove(id);
+                if (list.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+}
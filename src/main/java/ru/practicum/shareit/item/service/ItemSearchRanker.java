@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.ItemBookingCount;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Orders search matches by relevance, highest first, ties by id, and cuts out the requested page.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchRanker {
+    private static final int COUNT_CHUNK_SIZE = 1000;
+    private static final Comparator<ItemMatch> BY_RANK = Comparator.comparingDouble(ItemMatch::relevance).reversed()
+            .thenComparingLong(ItemMatch::id);
+
+    private final BookingRepository bookingRepository;
+
+    /**
+     * Ids of the matches ranked {@code from} to {@code from + size}. Only the best {@code from + size}
+     * matches are kept in a heap, so the whole match set is never sorted.
+     */
+    public List<Long> page(List<ItemMatch> matches, int from, int size, boolean byPopularity) {
+        if (byPopularity) {
+            matches = boostByCompletedBookings(matches);
+        }
+        int limit = (int) Math.min((long) from + size, matches.size());
+        if (from >= limit) {
+            return List.of();
+        }
+        // The root is the worst of the kept matches and is the one pushed out by a better match
+        PriorityQueue<ItemMatch> best = new PriorityQueue<>(limit, BY_RANK.reversed());
+        for (ItemMatch match : matches) {
+            if (best.size() < limit) {
+                best.add(match);
+            } else if (BY_RANK.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+        Long[] ranked = new Long[limit];
+        for (int i = limit - 1; i >= 0; i--) {
+            ranked[i] = best.poll().id();
+        }
+        return List.of(ranked).subList(from, limit);
+    }
+
+    /**
+     * Adds the logarithm of completed bookings, which reorders matches of similar relevance and stays
+     * small next to the weight of a name match.
+     */
+    private List<ItemMatch> boostByCompletedBookings(List<ItemMatch> matches) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Long> completed = new HashMap<>();
+        for (int i = 0; i < matches.size(); i += COUNT_CHUNK_SIZE) {
+            List<Long> ids = matches.subList(i, Math.min(i + COUNT_CHUNK_SIZE, matches.size())).stream()
+                    .map(ItemMatch::id)
+                    .toList();
+            for (ItemBookingCount count : bookingRepository.countByItemIdIn(ids, BookingStatus.APPROVED, now)) {
+                completed.put(count.itemId(), count.count());
+            }
+        }
+        List<ItemMatch> boosted = new ArrayList<>(matches.size());
+        for (ItemMatch match : matches) {
+            boosted.add(match.boosted(Math.log1p(completed.getOrDefault(match.id(), 0L))));
+        }
+        return boosted;
+    }
+}
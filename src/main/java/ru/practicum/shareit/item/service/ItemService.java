@@ -1,22 +1,33 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.comments.dto.CommentDto;
+import ru.practicum.shareit.comments.dto.CommentPage;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     List<ItemDto> getAll(Long userId);
 
-    ItemDto getById(Long id);
+    ItemDto getById(Long id, Long userId);
+
+    String getETag(Long id, Long userId);
 
     ItemDto create(ItemDto itemDto, Long userId);
 
+    List<ItemDto> createAll(List<ItemDto> itemDtos, Long userId);
+
     ItemDto update(ItemDto itemDto, Long id, Long userId);
 
     void delete(Long id);
 
-    List<ItemDto> search(String text);
+    List<ItemDto> search(String text, int from, int size, boolean byPopularity);
+
+    List<AvailabilityWindowDto> getAvailability(Long id, LocalDateTime from, LocalDateTime to);
+
+    CommentPage getComments(Long itemId, String cursor, int size);
 
     CommentDto createComment(Long itemId, Long userId, CommentDto commentDto);
 }
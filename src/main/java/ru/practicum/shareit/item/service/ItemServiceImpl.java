@@ -2,28 +2,38 @@ package ru.practicum.shareit.item.service;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
-import ru.practicum.shareit.booking.dto.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.OwnerBookingProjection;
 import ru.practicum.shareit.comments.dto.CommentDto;
 import ru.practicum.shareit.comments.dto.CommentMapper;
+import ru.practicum.shareit.comments.dto.CommentPage;
 import ru.practicum.shareit.comments.model.Comment;
 import ru.practicum.shareit.comments.repository.CommentRepository;
+import ru.practicum.shareit.common.outbox.OutboxEventType;
+import ru.practicum.shareit.common.outbox.OutboxPublisher;
+import ru.practicum.shareit.common.persistence.KeysetCursor;
+import ru.practicum.shareit.common.validation.BulkValidator;
+import ru.practicum.shareit.common.validation.validation.Create;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ErrorCode;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.time.LocalDateTime.now;
@@ -32,57 +42,148 @@ import static java.time.LocalDateTime.now;
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int COMMENT_PREVIEW_SIZE = 10;
+    private static final String ITEM_AGGREGATE = "Item";
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final ItemMapper itemMapper;
     private final BookingRepository bookingRepository;
     private final CommentMapper commentMapper;
     private final CommentRepository commentRepository;
-    private final BookingMapper bookingMapper;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchRanker itemSearchRanker;
+    private final ItemBookingTimeline itemBookingTimeline;
+    private final ItemAvailabilityCalendar itemAvailabilityCalendar;
+    private final BulkValidator bulkValidator;
+    private final ItemRequestRepository itemRequestRepository;
+    private final OwnerBookingProjection ownerBookingProjection;
+    private final OutboxPublisher outboxPublisher;
 
 
     @Override
     public List<ItemDto> getAll(Long ownerId) {
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, ownerId);
+        }
         List<ItemDto> itemsDto = itemMapper.mapItemsToDtos(itemRepository.findAllByOwnerId(ownerId));
-
-        User owner = userRepository.findById(ownerId).orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        List<Booking> bookings = bookingRepository.findAllByBookerAndStatusEquals(owner, BookingStatus.APPROVED, Sort.by("id"));
-        List<BookingForItemDto> bookingsDto = bookingMapper.mapBookingsToBookingForItemDtos(bookings);
-        enrichItemsWithBookingInfo(itemsDto, bookingsDto);
+        enrichItemsWithBookingInfo(itemsDto);
         return itemsDto;
     }
 
     @Override
-    public ItemDto getById(Long id) {
+    public ItemDto getById(Long id, Long userId) {
         Item item = itemRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена id: " + id));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, id));
         ItemDto itemDto = itemMapper.itemModelToItemDto(item);
-        itemDto.setComments(commentMapper.toDto(commentRepository.findAllByItemId(id)));
+        if (item.getOwner().getId().equals(userId)) {
+            enrichItemsWithBookingInfo(List.of(itemDto));
+        }
+        // The total is kept on the item, so only the latest few comments are read here
+        KeysetCursor first = KeysetCursor.first();
+        itemDto.setComments(commentMapper.toDto(commentRepository.findPageByItemId(id, first.getTimestamp(),
+                first.getId(), PageRequest.of(0, COMMENT_PREVIEW_SIZE))));
         return itemDto;
     }
 
+    /**
+     * The owner also sees the booking timeline, which changes without touching the item row.
+     */
+    @Override
+    public String getETag(Long id, Long userId) {
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, id));
+        if (!item.getOwner().getId().equals(userId)) {
+            return String.valueOf(item.getVersion());
+        }
+        ItemBookingTimeline.Entry entry = itemBookingTimeline.get(id);
+        return item.getVersion() + "." + bookingId(entry.getLastBooking()) + "." + bookingId(entry.getNextBooking());
+    }
+
+    @Override
+    public CommentPage getComments(Long itemId, String cursor, int size) {
+        if (size <= 0) {
+            throw new BadRequestException(ErrorCode.INVALID_PAGINATION, 0, size);
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(ErrorCode.ITEM_NOT_FOUND, itemId);
+        }
+        KeysetCursor position = KeysetCursor.decodeOrFirst(cursor);
+        List<Comment> comments = commentRepository.findPageByItemId(itemId, position.getTimestamp(),
+                position.getId(), PageRequest.of(0, size));
+        String nextCursor = null;
+        if (comments.size() == size) {
+            Comment last = comments.get(comments.size() - 1);
+            nextCursor = KeysetCursor.after(last.getCreated(), last.getId()).encode();
+        }
+
+        return CommentPage.builder()
+                .comments(commentMapper.toDto(comments))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     @Transactional
     @Override
     public ItemDto create(ItemDto itemDto, Long userId) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Нельзя создать вещь. Пользователь не найден id: " + userId));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
         Item item = itemMapper.itemDtoToItemModel(itemDto);
         item.setOwner(user);
+        if (itemDto.getRequestId() != null) {
+            item.setItemRequest(itemRequestRepository.findById(itemDto.getRequestId())
+                    .orElseThrow(() -> new NotFoundException(ErrorCode.REQUEST_NOT_FOUND, itemDto.getRequestId())));
+        }
         itemRepository.save(item);
+        itemSearchIndex.index(item);
 
         return itemMapper.itemModelToItemDto(item);
     }
 
+    @Transactional
+    @Override
+    public List<ItemDto> createAll(List<ItemDto> itemDtos, Long userId) {
+        bulkValidator.validate(itemDtos, Create.class);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<Item> items = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            Item item = itemMapper.itemDtoToItemModel(itemDto);
+            item.setOwner(user);
+            if (itemDto.getRequestId() != null) {
+                ItemRequest itemRequest = requests.get(itemDto.getRequestId());
+                if (itemRequest == null) {
+                    throw new NotFoundException(ErrorCode.REQUEST_NOT_FOUND, itemDto.getRequestId());
+                }
+                item.setItemRequest(itemRequest);
+            }
+            items.add(item);
+        }
+        itemRepository.saveAll(items);
+        itemRepository.flush();
+        items.forEach(itemSearchIndex::index);
+
+        return itemMapper.mapItemsToDtos(items);
+    }
+
     @Transactional
     @Override
     public ItemDto update(ItemDto itemDto, Long id, Long userId) {
-        Item item = itemRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена id: " + id));
+        // Same row lock as createComment, so an update never writes back a stale comment count
+        Item item = itemRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, id));
         if (!item.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Не возможно обновить вещь с пользователя id: " + userId + " Не найдена вещь");
+            throw new NotFoundException(ErrorCode.ITEM_NOT_OWNED, userId);
         }
-        if (itemDto.getName() != null && !itemDto.getName().isBlank()) {
+        if (itemDto.getName() != null && !itemDto.getName().isBlank() && !itemDto.getName().equals(item.getName())) {
             item.setName(itemDto.getName());
+            ownerBookingProjection.onItemRenamed(id, item.getName());
         }
         if (itemDto.getDescription() != null && !itemDto.getDescription().isBlank()) {
             item.setDescription(itemDto.getDescription());
@@ -90,6 +191,7 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
+        itemSearchIndex.index(item);
 
         return itemMapper.itemModelToItemDto(item);
     }
@@ -98,60 +200,102 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public void delete(Long id) {
         Item item = itemRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена id: " + id));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, id));
+        ownerBookingProjection.onItemDeleted(id);
         itemRepository.delete(item);
+        itemSearchIndex.remove(id);
+        itemBookingTimeline.evict(id);
+        itemAvailabilityCalendar.evict(id);
     }
 
     @Override
-    public List<ItemDto> search(String text) {
+    public List<ItemDto> search(String text, int from, int size, boolean byPopularity) {
+        if (from < 0 || size <= 0) {
+            throw new BadRequestException(ErrorCode.INVALID_PAGINATION, from, size);
+        }
         if (text == null || text.isBlank()) {
             return Collections.emptyList();
         }
-        List<Item> items = itemRepository.findBySearchText(text);
-        return items.stream()
-                .map(itemMapper::itemModelToItemDto)
-                .collect(Collectors.toList());
+        List<ItemMatch> matches;
+        Map<Long, Item> items;
+        if (itemSearchIndex.supports(text)) {
+            matches = itemSearchIndex.search(text);
+            items = null;
+        } else {
+            List<Item> found = itemRepository.findBySearchText(text);
+            matches = found.stream()
+                    .map(item -> ItemSearchIndex.match(item, text))
+                    .collect(Collectors.toList());
+            items = found.stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+        }
+        List<Long> page = itemSearchRanker.page(matches, from, size, byPopularity);
+        if (items == null) {
+            // Only the requested page is loaded; the index may briefly lag behind an availability change
+            items = itemRepository.findAllById(page).stream()
+                    .filter(Item::isAvailable)
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+        }
+        List<ItemDto> result = new ArrayList<>(page.size());
+        for (Long id : page) {
+            Item item = items.get(id);
+            if (item != null) {
+                result.add(itemMapper.itemModelToItemDto(item));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<AvailabilityWindowDto> getAvailability(Long id, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException(ErrorCode.INVALID_PERIOD, from, to);
+        }
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, id));
+        if (!item.isAvailable()) {
+            return Collections.emptyList();
+        }
+        return itemAvailabilityCalendar.freeWindows(id, from, to);
     }
 
     @Transactional
     @Override
     public CommentDto createComment(Long itemId, Long userId, CommentDto commentDto) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Does not exist User with Id " + userId));
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Does not exist Item with Id " + itemId));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
+        // Row lock serializes concurrent comments on the item so the counter does not lose increments
+        Item item = itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException(ErrorCode.ITEM_NOT_FOUND, itemId));
         if (bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(userId, itemId, BookingStatus.APPROVED,
                 now()).isEmpty()) {
-            throw new BadRequestException("Item has not been rented by the user or the rental of the item has not yet been completed");
+            throw new BadRequestException(ErrorCode.COMMENT_NOT_ALLOWED);
         }
         Comment comment = commentMapper.commentDtoToCommentModel(commentDto);
         comment.setItem(item);
         comment.setAuthor(user);
         comment.setCreated(now());
         commentRepository.save(comment);
+        item.setCommentCount(item.getCommentCount() + 1);
+        CommentDto created = commentMapper.commentModelToCommentDto(comment);
+        outboxPublisher.publish(ITEM_AGGREGATE, itemId, OutboxEventType.COMMENT_CREATED, created);
+
+        return created;
+    }
 
-        return commentMapper.commentModelToCommentDto(comment);
+    private static String bookingId(BookingForItemDto booking) {
+        return booking == null ? "-" : String.valueOf(booking.getId());
     }
 
-    public void enrichItemsWithBookingInfo(List<ItemDto> itemsDto, List<BookingForItemDto> bookings) {
-        Map<Long, List<BookingForItemDto>> bookingsByItemId = bookings.stream()
-                .collect(Collectors.groupingBy(BookingForItemDto::getItemId));
-        LocalDateTime now = LocalDateTime.now();
+    public void enrichItemsWithBookingInfo(List<ItemDto> itemsDto) {
+        Map<Long, ItemBookingTimeline.Entry> timeline = itemBookingTimeline.get(itemsDto.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
         for (ItemDto item : itemsDto) {
-            Long itemId = item.getId();
-            List<BookingForItemDto> itemBookings = bookingsByItemId.getOrDefault(itemId, Collections.emptyList());
-            Optional<BookingForItemDto> lastBookingOpt = itemBookings.stream()
-                    .filter(b -> b.getStart().isBefore(now))
-                    .max(Comparator.comparing(BookingForItemDto::getStart));
-            Optional<BookingForItemDto> nextBookingOpt = itemBookings.stream()
-                    .filter(b -> b.getStart().isAfter(now))
-                    .min(Comparator.comparing(BookingForItemDto::getStart));
-            lastBookingOpt.ifPresent(lastBooking -> {
-                item.setLastBooking(lastBooking);
-            });
-            nextBookingOpt.ifPresent(nextBooking -> {
-                item.setNextBooking(nextBooking);
-            });
+            ItemBookingTimeline.Entry entry = timeline.get(item.getId());
+            if (entry != null) {
+                item.setLastBooking(entry.getLastBooking());
+                item.setNextBooking(entry.getNextBooking());
+            }
         }
     }
 }
@@ -1,12 +1,41 @@
 package ru.practicum.shareit.request.controller;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.web.HeaderConstants;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ItemRequestDto create(@RequestHeader(HeaderConstants.USER_ID) Long userId,
+                                 @Valid @RequestBody ItemRequestDto itemRequestDto) {
+        return itemRequestService.create(itemRequestDto, userId);
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> getAllByRequestor(@RequestHeader(HeaderConstants.USER_ID) Long userId) {
+        return itemRequestService.getAllByRequestor(userId);
+    }
+
+    @GetMapping("/all")
+    public List<ItemRequestDto> getAllOfOthers(@RequestHeader(HeaderConstants.USER_ID) Long userId,
+                                               @RequestParam(defaultValue = "0") int from,
+                                               @RequestParam(defaultValue = "10") int size) {
+        return itemRequestService.getAllOfOthers(userId, from, size);
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto getById(@PathVariable Long requestId,
+                                  @RequestHeader(HeaderConstants.USER_ID) Long userId) {
+        return itemRequestService.getById(requestId, userId);
+    }
 }
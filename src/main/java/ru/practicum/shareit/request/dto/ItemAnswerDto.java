@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class ItemAnswerDto {
+    private Long id;
+
+    private String name;
+
+    private Long ownerId;
+}
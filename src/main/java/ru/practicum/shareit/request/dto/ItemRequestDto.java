@@ -1,7 +1,23 @@
 package ru.practicum.shareit.request.dto;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import jakarta.validation.constraints.NotBlank;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder(toBuilder = true)
 public class ItemRequestDto {
+    private Long id;
+
+    @NotBlank
+    private String description;
+
+    private LocalDateTime created;
+
+    private List<ItemAnswerDto> items;
 }
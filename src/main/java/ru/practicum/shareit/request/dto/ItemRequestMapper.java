@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request.dto;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ItemRequestMapper {
+    @Mapping(target = "requestor", ignore = true)
+    ItemRequest itemRequestDtoToItemRequestModel(ItemRequestDto itemRequestDto);
+
+    @Mapping(target = "items", ignore = true)
+    ItemRequestDto itemRequestModelToItemRequestDto(ItemRequest itemRequest);
+
+    @Mapping(source = "owner.id", target = "ownerId")
+    ItemAnswerDto itemModelToItemAnswerDto(Item item);
+
+    List<ItemAnswerDto> mapItemsToItemAnswerDtos(List<Item> items);
+}
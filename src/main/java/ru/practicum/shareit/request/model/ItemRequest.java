@@ -8,7 +8,10 @@ import ru.practicum.shareit.user.model.User;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "requests")
+@Table(name = "requests", indexes = {
+        @Index(name = "idx_requests_requestor_created", columnList = "requestor_id, created"),
+        @Index(name = "idx_requests_created_id_desc", columnList = "created DESC, id DESC")
+})
 @Getter
 @Setter
 @Builder
@@ -23,7 +26,7 @@ public class ItemRequest {
     @Column(length = 1000, nullable = false)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requestor_id", referencedColumnName = "id")
     private User requestor;
 
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestDto create(ItemRequestDto itemRequestDto, Long userId);
+
+    List<ItemRequestDto> getAllByRequestor(Long userId);
+
+    List<ItemRequestDto> getAllOfOthers(Long userId, int from, int size);
+
+    ItemRequestDto getById(Long id, Long userId);
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.request.service;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.common.persistence.OffsetLimitPageable;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ErrorCode;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.time.LocalDateTime.now;
+
+@Service
+@RequiredArgsConstructor
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemRequestMapper itemRequestMapper;
+
+    @Transactional
+    @Override
+    public ItemRequestDto create(ItemRequestDto itemRequestDto, Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, userId));
+        ItemRequest itemRequest = itemRequestMapper.itemRequestDtoToItemRequestModel(itemRequestDto);
+        itemRequest.setRequestor(user);
+        itemRequest.setCreated(now());
+        itemRequestRepository.save(itemRequest);
+
+        ItemRequestDto created = itemRequestMapper.itemRequestModelToItemRequestDto(itemRequest);
+        created.setItems(List.of());
+        return created;
+    }
+
+    @Override
+    public List<ItemRequestDto> getAllByRequestor(Long userId) {
+        throwIfUserNotFound(userId);
+        return withItems(itemRequestRepository.findAllByRequestorIdOrderByCreatedDescIdDesc(userId));
+    }
+
+    @Override
+    public List<ItemRequestDto> getAllOfOthers(Long userId, int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new BadRequestException(ErrorCode.INVALID_PAGINATION, from, size);
+        }
+        throwIfUserNotFound(userId);
+        return withItems(itemRequestRepository.findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId,
+                OffsetLimitPageable.of(from, size)));
+    }
+
+    @Override
+    public ItemRequestDto getById(Long id, Long userId) {
+        throwIfUserNotFound(userId);
+        ItemRequest itemRequest = itemRequestRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(ErrorCode.REQUEST_NOT_FOUND, id));
+        return withItems(List.of(itemRequest)).get(0);
+    }
+
+    private void throwIfUserNotFound(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(ErrorCode.USER_NOT_FOUND, userId);
+        }
+    }
+
+    private List<ItemRequestDto> withItems(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return List.of();
+        }
+        // Answers for the whole page come from a single IN query
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findAllByItemRequestIdIn(itemRequests.stream()
+                        .map(ItemRequest::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(item -> item.getItemRequest().getId()));
+        return itemRequests.stream()
+                .map(itemRequest -> {
+                    ItemRequestDto dto = itemRequestMapper.itemRequestModelToItemRequestDto(itemRequest);
+                    dto.setItems(itemRequestMapper.mapItemsToItemAnswerDtos(
+                            itemsByRequest.getOrDefault(itemRequest.getId(), List.of())));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.user.dto;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import ru.practicum.shareit.user.model.User;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
 
+    @Mapping(target = "version", ignore = true)
     User userDtoToUserModel(UserDto userDto);
 
     UserDto userModelToUserDto(User user);
@@ -2,9 +2,13 @@ package ru.practicum.shareit.user.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@Table(name = "users", uniqueConstraints = @UniqueConstraint(name = "UQ_USER_EMAIL", columnNames = "email"))
 @Getter
 @Setter
 @Builder
@@ -18,6 +22,10 @@ public class User {
     @Column(length = 255, nullable = false)
     private String name;
 
-    @Column(unique = true, length = 512, nullable = false)
+    @Column(length = 512, nullable = false)
     private String email;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
 }
@@ -9,6 +9,8 @@ public interface UserService {
 
     UserDto getById(Long id);
 
+    String getETag(Long id);
+
     UserDto create(UserDto userDto);
 
     UserDto update(UserDto userDto, Long id);
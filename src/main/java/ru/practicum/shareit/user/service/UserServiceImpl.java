@@ -1,25 +1,42 @@
 package ru.practicum.shareit.user.service;
 
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.OwnerBookingProjection;
+import ru.practicum.shareit.exception.ErrorCode;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityCalendar;
+import ru.practicum.shareit.item.service.ItemBookingTimeline;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
-import java.util.Objects;
+import java.util.Locale;
 
 import static java.util.stream.Collectors.toList;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final String EMAIL_CONSTRAINT = "UQ_USER_EMAIL";
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final OwnerBookingProjection ownerBookingProjection;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemBookingTimeline itemBookingTimeline;
+    private final ItemAvailabilityCalendar itemAvailabilityCalendar;
 
     @Override
     public List<UserDto> getAll() {
@@ -29,17 +46,30 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDto getById(Long id) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден id: " + id));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, id));
 
         return userMapper.userModelToUserDto(user);
     }
 
+    @Override
+    public String getETag(Long id) {
+        return userRepository.findById(id)
+                .map(user -> String.valueOf(user.getVersion()))
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, id));
+    }
+
     @Transactional
     @Override
     public UserDto create(UserDto userDto) {
         User user = userMapper.userDtoToUserModel(userDto);
-        throwIfEmailNotUnique(user);
-        return userMapper.userModelToUserDto(userRepository.save(user));
+        if (userRepository.existsByEmail(user.getEmail())) {
+            throw emailTaken(user.getEmail());
+        }
+        try {
+            return userMapper.userModelToUserDto(userRepository.saveAndFlush(user));
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailViolation(e, user.getEmail());
+        }
     }
 
     @Transactional
@@ -47,13 +77,22 @@ public class UserServiceImpl implements UserService {
     public UserDto update(UserDto userDto, Long id) {
         User user = userMapper.userDtoToUserModel(userDto);
         User updatedUser = userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден id: " + id));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, id));
         if (user.getEmail() != null && !user.getEmail().isBlank()) {
-            throwIfEmailNotUnique(user);
+            if (userRepository.existsByEmailAndIdNot(user.getEmail(), id)) {
+                throw emailTaken(user.getEmail());
+            }
             updatedUser.setEmail(user.getEmail());
         }
-        if (user.getName() != null && !user.getName().isBlank()) {
+        if (user.getName() != null && !user.getName().isBlank() && !user.getName().equals(updatedUser.getName())) {
             updatedUser.setName(user.getName());
+            ownerBookingProjection.onUserRenamed(id, updatedUser.getName());
+            itemRepository.incrementVersionCommentedBy(id);
+        }
+        try {
+            userRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw translateEmailViolation(e, user.getEmail());
         }
 
         return userMapper.userModelToUserDto(updatedUser);
@@ -63,15 +102,32 @@ public class UserServiceImpl implements UserService {
     @Override
     public void delete(Long id) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден id: " + id));
+                .orElseThrow(() -> new NotFoundException(ErrorCode.USER_NOT_FOUND, id));
+        // The database cascades the delete to the user's bookings; the items they held keep cached schedules
+        List<Long> bookedItemIds = bookingRepository.findItemIdsByBookerId(id);
+        ownerBookingProjection.onUserDeleted(id);
+        // The user's comments are cascaded too and have to leave the items' counters first
+        itemRepository.decrementCommentCountCommentedBy(id);
         userRepository.delete(user);
+        userRepository.flush();
+        // The database cascades the delete to the user's items, which Hibernate does not see
+        entityManagerFactory.getCache().evict(Item.class);
+        bookedItemIds.forEach(itemId -> {
+            itemBookingTimeline.evict(itemId);
+            itemAvailabilityCalendar.evict(itemId);
+        });
     }
 
-    private void throwIfEmailNotUnique(User user) {
-        for (User userCheck : userRepository.findAll()) {
-            if (user.getEmail().equals(userCheck.getEmail()) && !Objects.equals(user.getId(), userCheck.getId())) {
-                throw new ValidationException("Пользователь с email + " + user.getEmail() + " уже зарегистрирован");
-            }
+    private ValidationException emailTaken(String email) {
+        return new ValidationException(ErrorCode.EMAIL_TAKEN, email);
+    }
+
+    // Another request may insert the same email between the existence check and the flush
+    private RuntimeException translateEmailViolation(DataIntegrityViolationException e, String email) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.toUpperCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+            return emailTaken(email);
         }
+        return e;
     }
 }
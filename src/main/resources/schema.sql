@@ -4,6 +4,7 @@ CREATE TABLE IF NOT EXISTS users
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name  VARCHAR(255)                            NOT NULL,
     email VARCHAR(512)                            NOT NULL,
+    version BIGINT DEFAULT 0                      NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id),
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
@@ -19,6 +20,16 @@ CREATE TABLE IF NOT EXISTS requests
     CONSTRAINT fk_request_to_user FOREIGN KEY (requestor_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created);
+-- Прежний индекс (created) заменён на (created DESC, id DESC) под новым именем: IF NOT EXISTS не пересоздал бы его
+DROP INDEX IF EXISTS idx_requests_created;
+CREATE INDEX IF NOT EXISTS idx_requests_created_id_desc ON requests (created DESC, id DESC);
+
+-- Последовательности для пакетной вставки вещей и бронирований (шаг равен allocationSize в сущностях).
+-- В уже существующей базе их продвигает за MAX(id) соответствующей таблицы IdSequenceAligner при старте.
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
 -- Создание таблицы вещей
 CREATE TABLE IF NOT EXISTS items
 (
@@ -28,11 +39,16 @@ CREATE TABLE IF NOT EXISTS items
     is_available BOOLEAN                                 NOT NULL,
     owner_id     BIGINT                                  NOT NULL,
     request_id   BIGINT,
+    comment_count BIGINT DEFAULT 0                        NOT NULL,
+    version      BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_item PRIMARY KEY (id),
     CONSTRAINT fk_item_to_user FOREIGN KEY (owner_id) REFERENCES users (id) ON DELETE CASCADE,
     CONSTRAINT fk_item_to_request FOREIGN KEY (request_id) REFERENCES requests (id) ON DELETE SET NULL
 );
 
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
 -- Создание таблицы бронирований
 CREATE TABLE IF NOT EXISTS bookings
 (
@@ -42,12 +58,41 @@ CREATE TABLE IF NOT EXISTS bookings
     item_id    BIGINT                                  NOT NULL,
     booker_id  BIGINT                                  NOT NULL,
     status     VARCHAR(20)                             NOT NULL,
+    version    BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_booking_to_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
     CONSTRAINT fk_booking_to_user FOREIGN KEY (booker_id) REFERENCES users (id) ON DELETE CASCADE,
     CONSTRAINT check_dates CHECK (end_date > start_date)
 );
 
+-- Индексы повторяют формы запросов BookingRepository: списки бронирующего и владельца (через items.owner_id),
+-- выборки по вещи и статусу, проверка пересечений. Набор продублирован в @Table(indexes) сущностей.
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+-- Проекция бронирований для владельцев вещей (read model): списки владельца читают одну таблицу.
+-- Поддерживается в тех же транзакциях, что и бронирования; расхождения чинит POST /actuator/ownerbookings.
+CREATE TABLE IF NOT EXISTS owner_booking_view
+(
+    booking_id  BIGINT                      NOT NULL,
+    owner_id    BIGINT                      NOT NULL,
+    item_id     BIGINT                      NOT NULL,
+    item_name   VARCHAR(255)                NOT NULL,
+    booker_id   BIGINT                      NOT NULL,
+    booker_name VARCHAR(255)                NOT NULL,
+    start_date  TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    status      VARCHAR(20)                 NOT NULL,
+    CONSTRAINT pk_owner_booking_view PRIMARY KEY (booking_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_owner_booking_view_owner_start ON owner_booking_view (owner_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_owner_booking_view_owner_status_start ON owner_booking_view (owner_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_owner_booking_view_item ON owner_booking_view (item_id);
+CREATE INDEX IF NOT EXISTS idx_owner_booking_view_booker ON owner_booking_view (booker_id);
+
 -- Создание таблицы комментариев
 CREATE TABLE IF NOT EXISTS comments
 (
@@ -59,4 +104,49 @@ CREATE TABLE IF NOT EXISTS comments
     CONSTRAINT pk_comment PRIMARY KEY (id),
     CONSTRAINT fk_comment_to_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
     CONSTRAINT fk_comment_to_user FOREIGN KEY (author_id) REFERENCES users (id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created, id);
+
+-- Исходящие события (transactional outbox): пишутся в транзакции изменения, вычитываются диспетчером по id.
+-- Неудачные доставки повторяются с нарастающей задержкой (next_attempt_at), после max-attempts событие паркуется.
+CREATE TABLE IF NOT EXISTS outbox_events
+(
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    aggregate_type VARCHAR(50)                             NOT NULL,
+    aggregate_id   BIGINT                                  NOT NULL,
+    event_type     VARCHAR(30)                             NOT NULL,
+    payload        VARCHAR(4000)                           NOT NULL,
+    created_at     TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    attempts       INTEGER DEFAULT 0                       NOT NULL,
+    next_attempt_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    parked         BOOLEAN DEFAULT FALSE                   NOT NULL,
+    CONSTRAINT pk_outbox_event PRIMARY KEY (id)
+);
+
+-- Поиск более раннего события того же агрегата, ожидающего повтора (см. OutboxEventRepository.findBatch)
+CREATE INDEX IF NOT EXISTS idx_outbox_events_aggregate ON outbox_events (aggregate_type, aggregate_id, id);
+
+-- Отметка времени primary, по которой оценивается отставание реплик (см. ReplicaSet)
+CREATE TABLE IF NOT EXISTS replica_heartbeat
+(
+    id   INTEGER NOT NULL,
+    beat BIGINT  NOT NULL,
+    CONSTRAINT pk_replica_heartbeat PRIMARY KEY (id)
+);
+
+-- Миграции баз, созданных до появления столбцов: CREATE TABLE IF NOT EXISTS их не добавляет
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count BIGINT DEFAULT 0 NOT NULL;
+UPDATE items
+SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id)
+WHERE comment_count = 0
+  AND EXISTS (SELECT 1 FROM comments c WHERE c.item_id = items.id);
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS parked BOOLEAN DEFAULT FALSE NOT NULL;
+
+-- Метрики диспетчера: число припаркованных событий и самое старое неприпаркованное.
+-- Создаётся после миграций, так как столбца parked в старых базах нет до ALTER выше
+CREATE INDEX IF NOT EXISTS idx_outbox_events_parked ON outbox_events (parked, id);
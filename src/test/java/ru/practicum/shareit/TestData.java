@@ -0,0 +1,33 @@
+package ru.practicum.shareit;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.UUID;
+
+/**
+ * Unsaved entities for tests that only need some user or some item to exist.
+ */
+public final class TestData {
+    private TestData() {
+    }
+
+    /**
+     * A user with a unique email, so tests sharing a database do not collide.
+     */
+    public static User user() {
+        return User.builder()
+                .name("user")
+                .email(UUID.randomUUID() + "@mail.ru")
+                .build();
+    }
+
+    public static Item item(User owner) {
+        return Item.builder()
+                .owner(owner)
+                .name("Drill")
+                .description("Cordless drill")
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ErrorCode;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.TestData.item;
+import static ru.practicum.shareit.TestData.user;
+
+@SpringBootTest
+class BookingApprovalConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void exactlyOneConcurrentDecisionWins() throws Exception {
+        User owner = userRepository.save(user());
+        Item item = itemRepository.save(item(owner));
+        Booking booking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(userRepository.save(user()))
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .status(BookingStatus.WAITING)
+                .build());
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                boolean approved = i % 2 == 0;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return bookingService.approve(booking.getId(), owner.getId(), approved);
+                }));
+            }
+            start.countDown();
+
+            List<BookingDto> winners = new ArrayList<>();
+            for (Future<BookingDto> result : results) {
+                try {
+                    winners.add(result.get());
+                } catch (ExecutionException e) {
+                    // Losers get 409 from the conditional update or 400 once the decision is visible
+                    assertThat(e.getCause()).satisfiesAnyOf(
+                            cause -> assertThat(cause).isInstanceOfSatisfying(ValidationException.class,
+                                    rejected -> assertThat(rejected.getCode())
+                                            .isEqualTo(ErrorCode.BOOKING_DECIDED_CONCURRENTLY)),
+                            cause -> assertThat(cause).isInstanceOfSatisfying(BadRequestException.class,
+                                    rejected -> assertThat(rejected.getCode())
+                                            .isEqualTo(ErrorCode.BOOKING_ALREADY_DECIDED)));
+                }
+            }
+
+            assertThat(winners).hasSize(1);
+            Booking stored = bookingRepository.findById(booking.getId()).orElseThrow();
+            assertThat(stored.getStatus()).isEqualTo(winners.get(0).getStatus());
+            assertThat(stored.getVersion()).isEqualTo(booking.getVersion() + 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
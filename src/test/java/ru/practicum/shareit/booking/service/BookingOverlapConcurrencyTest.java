@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ErrorCode;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.TestData.item;
+import static ru.practicum.shareit.TestData.user;
+
+@SpringBootTest
+class BookingOverlapConcurrencyTest {
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void onlyOneOfTwoOverlappingBookingsIsApproved() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                User owner = userRepository.save(user());
+                Item item = itemRepository.save(item(owner));
+                LocalDateTime start = LocalDateTime.now().plusDays(1);
+                Booking first = saveWaiting(item, start, start.plusDays(2));
+                Booking second = saveWaiting(item, start.plusDays(1), start.plusDays(3));
+
+                CountDownLatch go = new CountDownLatch(1);
+                List<Future<BookingDto>> results = new ArrayList<>();
+                for (Booking booking : List.of(first, second)) {
+                    results.add(executor.submit(() -> {
+                        go.await();
+                        return bookingService.approve(booking.getId(), owner.getId(), true);
+                    }));
+                }
+                go.countDown();
+
+                int approved = 0;
+                for (Future<BookingDto> result : results) {
+                    try {
+                        result.get();
+                        approved++;
+                    } catch (ExecutionException e) {
+                        assertThat(e.getCause()).isInstanceOfSatisfying(ValidationException.class,
+                                rejected -> assertThat(rejected.getCode()).isEqualTo(ErrorCode.BOOKING_OVERLAP));
+                    }
+                }
+
+                assertThat(approved).isEqualTo(1);
+                assertThat(bookingRepository.findAllByItemIdAndStatus(item.getId(), BookingStatus.APPROVED,
+                        Sort.unsorted())).hasSize(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Booking saveWaiting(Item item, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(userRepository.save(user()))
+                .start(start)
+                .end(end)
+                .status(BookingStatus.WAITING)
+                .build());
+    }
+}
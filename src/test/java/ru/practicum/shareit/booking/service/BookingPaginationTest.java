@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.TestData.item;
+import static ru.practicum.shareit.TestData.user;
+
+@SpringBootTest
+class BookingPaginationTest {
+    private static final int BOOKINGS = 15;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private User booker;
+    private final List<Long> latestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(user());
+        booker = userRepository.save(user());
+        Item item = itemRepository.save(item(owner));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < BOOKINGS; i++) {
+            BookingDto booking = bookingService.create(BookingShortDto.builder()
+                    .itemId(item.getId())
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .build(), booker.getId());
+            latestFirst.add(0, booking.getId());
+        }
+    }
+
+    @Test
+    void fromNeedNotBeMultipleOfSize() {
+        assertThat(ids(bookingService.getAllByUser(booker.getId(), "ALL", null, 5, 10).getBookings()))
+                .containsExactlyElementsOf(latestFirst.subList(5, 15));
+        assertThat(ids(bookingService.getAllByOwner(owner.getId(), "ALL", null, 3, 4).getBookings()))
+                .containsExactlyElementsOf(latestFirst.subList(3, 7));
+    }
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).toList();
+    }
+}
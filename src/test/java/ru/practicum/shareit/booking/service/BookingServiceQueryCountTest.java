@@ -0,0 +1,122 @@
+package ru.practicum.shareit.booking.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.comments.model.Comment;
+import ru.practicum.shareit.comments.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.TestData.item;
+import static ru.practicum.shareit.TestData.user;
+
+@SpringBootTest
+class BookingServiceQueryCountTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private OwnerBookingProjection ownerBookingProjection;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.save(user());
+        booker = userRepository.save(user());
+        item = itemRepository.save(item(owner));
+    }
+
+    @Test
+    void bookingListsIssueConstantNumberOfStatements() {
+        addBookings(1);
+        long ownerSmall = countStatements(() -> bookingService.getAllByOwner(owner.getId(), "ALL", null, 0, null));
+        long bookerSmall = countStatements(() -> bookingService.getAllByUser(booker.getId(), "ALL", null, 0, null));
+
+        addBookings(20);
+        long ownerLarge = countStatements(() -> bookingService.getAllByOwner(owner.getId(), "ALL", null, 0, null));
+        long bookerLarge = countStatements(() -> bookingService.getAllByUser(booker.getId(), "ALL", null, 0, null));
+
+        assertThat(ownerSmall).isPositive().isEqualTo(ownerLarge);
+        assertThat(bookerSmall).isPositive().isEqualTo(bookerLarge);
+    }
+
+    @Test
+    void itemCommentsIssueConstantNumberOfStatements() {
+        addComments(1);
+        long small = countStatements(() -> itemService.getById(item.getId(), booker.getId()));
+
+        addComments(20);
+        long large = countStatements(() -> itemService.getById(item.getId(), booker.getId()));
+
+        assertThat(small).isPositive().isEqualTo(large);
+    }
+
+    private long countStatements(Supplier<?> call) {
+        statistics.clear();
+        call.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addBookings(int count) {
+        LocalDateTime start = LocalDateTime.now().minusDays(count + 1);
+        for (int i = 0; i < count; i++) {
+            bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(userRepository.save(user()))
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .status(BookingStatus.WAITING)
+                    .build());
+            bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(start.plusDays(i).plusHours(2))
+                    .end(start.plusDays(i).plusHours(3))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        ownerBookingProjection.rebuild();
+    }
+
+    private void addComments(int count) {
+        for (int i = 0; i < count; i++) {
+            commentRepository.save(Comment.builder()
+                    .item(item)
+                    .author(userRepository.save(user()))
+                    .text("comment " + i)
+                    .created(LocalDateTime.now())
+                    .build());
+        }
+    }
+}
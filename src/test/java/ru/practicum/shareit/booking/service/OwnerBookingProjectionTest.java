@@ -0,0 +1,164 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.OwnerBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingViewRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Own database: bookings saved straight through the repository by other tests have no view rows
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:owner-booking-view")
+class OwnerBookingProjectionTest {
+    private static final int WRITERS = 4;
+    private static final int BOOKINGS_PER_WRITER = 15;
+
+    @Autowired
+    private OwnerBookingProjection ownerBookingProjection;
+    @Autowired
+    private OwnerBookingViewRepository ownerBookingViewRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void everyChangeKeepsTheViewInLine() {
+        UserDto owner = createUser("owner");
+        UserDto booker = createUser("booker");
+        ItemDto item = createItem(owner);
+
+        BookingDto booking = bookingService.create(bookingOf(item, 1), booker.getId());
+        assertConsistent();
+
+        bookingService.approve(booking.getId(), owner.getId(), true);
+        assertConsistent();
+        assertThat(viewOf(booking).getStatus()).isEqualTo(BookingStatus.APPROVED);
+
+        itemService.update(ItemDto.builder().name("Hammer drill").build(), item.getId(), owner.getId());
+        assertConsistent();
+        assertThat(viewOf(booking).getItemName()).isEqualTo("Hammer drill");
+
+        userService.update(UserDto.builder().name("renamed").build(), booker.getId());
+        assertConsistent();
+        assertThat(viewOf(booking).getBookerName()).isEqualTo("renamed");
+
+        itemService.delete(item.getId());
+        assertConsistent();
+        assertThat(ownerBookingViewRepository.findById(booking.getId())).isEmpty();
+
+        ItemDto other = createItem(owner);
+        BookingDto second = bookingService.create(bookingOf(other, 2), booker.getId());
+        userService.delete(booker.getId());
+        assertConsistent();
+        assertThat(ownerBookingViewRepository.findById(second.getId())).isEmpty();
+    }
+
+    @Test
+    void rebuildRunningAlongsideWritersLosesNothing() throws Exception {
+        UserDto owner = createUser("owner");
+        List<ItemDto> items = new ArrayList<>();
+        List<UserDto> bookers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            items.add(createItem(owner));
+            bookers.add(createUser("booker"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            AtomicBoolean writing = new AtomicBoolean(true);
+            Future<Integer> rebuilds = executor.submit(() -> {
+                go.await();
+                int runs = 0;
+                while (writing.get()) {
+                    ownerBookingProjection.rebuild();
+                    runs++;
+                }
+                return runs;
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                ItemDto item = items.get(i);
+                UserDto booker = bookers.get(i);
+                writers.add(executor.submit(() -> {
+                    go.await();
+                    for (int n = 0; n < BOOKINGS_PER_WRITER; n++) {
+                        BookingDto booking = bookingService.create(bookingOf(item, 3 * n + 1), booker.getId());
+                        bookingService.approve(booking.getId(), owner.getId(), n % 2 == 0);
+                    }
+                    itemService.update(ItemDto.builder().name("renamed " + item.getId()).build(),
+                            item.getId(), owner.getId());
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            assertThat(rebuilds.get()).isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertConsistent();
+        assertThat(ownerBookingViewRepository.count()).isEqualTo(bookingRepository.count());
+    }
+
+    // A rebuild that finds nothing to repair proves the incremental updates left the view exact
+    private void assertConsistent() {
+        assertThat(ownerBookingProjection.rebuild()).isEqualTo(new OwnerBookingProjection.Rebuild(0, 0));
+    }
+
+    private OwnerBookingView viewOf(BookingDto booking) {
+        return ownerBookingViewRepository.findById(booking.getId()).orElseThrow();
+    }
+
+    private BookingShortDto bookingOf(ItemDto item, int daysAhead) {
+        LocalDateTime start = LocalDateTime.now().plusDays(daysAhead);
+        return BookingShortDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+    }
+
+    private ItemDto createItem(UserDto owner) {
+        return itemService.create(ItemDto.builder()
+                .name("Drill")
+                .description("Cordless drill")
+                .available(true)
+                .build(), owner.getId());
+    }
+
+    private UserDto createUser(String name) {
+        return userService.create(UserDto.builder()
+                .name(name)
+                .email(UUID.randomUUID() + "@mail.ru")
+                .build());
+    }
+}
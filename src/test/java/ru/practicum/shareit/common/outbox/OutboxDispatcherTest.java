@@ -0,0 +1,179 @@
+package ru.practicum.shareit.common.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-dispatcher",
+        "shareit.outbox.enabled=true",
+        // Polling is driven by the test; the scheduled run would only race with it
+        "shareit.outbox.poll-interval=1h",
+        "shareit.outbox.batch-size=2",
+        "shareit.outbox.retry-backoff=1h",
+        "shareit.outbox.max-retry-backoff=1h",
+        "shareit.outbox.max-attempts=3"
+})
+class OutboxDispatcherTest {
+    private static final String BOOKING = "Booking";
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RecordingListener listener;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        listener.reset();
+    }
+
+    @Test
+    void failedEventIsRetriedAfterBackoffAndKeepsItsAggregateInOrder() {
+        publish(1L, OutboxEventType.BOOKING_CREATED);
+        publish(2L, OutboxEventType.BOOKING_CREATED);
+        publish(1L, OutboxEventType.BOOKING_APPROVED);
+        publish(2L, OutboxEventType.BOOKING_APPROVED);
+        listener.failTimes(1L, OutboxEventType.BOOKING_CREATED, 1);
+
+        outboxDispatcher.dispatch();
+
+        assertThat(listener.delivered()).containsExactly("2:BOOKING_CREATED", "2:BOOKING_APPROVED");
+        OutboxEvent failed = eventsOf(1L).get(0);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(LocalDateTime.now().plusMinutes(59));
+        assertThat(eventsOf(1L)).hasSize(2);
+
+        // Not due yet: neither the failed event nor the one behind it is attempted
+        outboxDispatcher.dispatch();
+        assertThat(listener.attempts()).isEqualTo(3);
+
+        makeDue();
+        outboxDispatcher.dispatch();
+
+        assertThat(listener.delivered()).containsExactly("2:BOOKING_CREATED", "2:BOOKING_APPROVED",
+                "1:BOOKING_CREATED", "1:BOOKING_APPROVED");
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void failingHeadsDoNotStallOtherAggregates() {
+        // With a batch of two, the first read returns only events of the failing aggregate
+        publish(1L, OutboxEventType.BOOKING_CREATED);
+        publish(1L, OutboxEventType.BOOKING_APPROVED);
+        for (long id = 2; id <= 6; id++) {
+            publish(id, OutboxEventType.BOOKING_CREATED);
+        }
+        listener.failTimes(1L, OutboxEventType.BOOKING_CREATED, Integer.MAX_VALUE);
+
+        outboxDispatcher.dispatch();
+
+        assertThat(listener.delivered()).containsExactly("2:BOOKING_CREATED", "3:BOOKING_CREATED",
+                "4:BOOKING_CREATED", "5:BOOKING_CREATED", "6:BOOKING_CREATED");
+        assertThat(outboxEventRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void eventIsParkedAfterMaxAttemptsAndStillHoldsBackItsAggregate() {
+        publish(1L, OutboxEventType.BOOKING_CREATED);
+        publish(1L, OutboxEventType.BOOKING_APPROVED);
+        listener.failTimes(1L, OutboxEventType.BOOKING_CREATED, Integer.MAX_VALUE);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            makeDue();
+            outboxDispatcher.dispatch();
+        }
+        makeDue();
+        outboxDispatcher.dispatch();
+
+        assertThat(listener.attempts()).isEqualTo(3);
+        assertThat(listener.delivered()).isEmpty();
+        List<OutboxEvent> pending = eventsOf(1L);
+        assertThat(pending).hasSize(2);
+        assertThat(pending.get(0).isParked()).isTrue();
+        assertThat(pending.get(0).getAttempts()).isEqualTo(3);
+        assertThat(pending.get(1).isParked()).isFalse();
+        assertThat(pending.get(1).getAttempts()).isZero();
+        assertThat(outboxDispatcher.getParked()).isEqualTo(1);
+        assertThat(outboxDispatcher.getPending()).isEqualTo(1);
+    }
+
+    private void publish(Long aggregateId, OutboxEventType type) {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxPublisher.publish(BOOKING, aggregateId, type, Map.of("id", aggregateId)));
+    }
+
+    private void makeDue() {
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findAll()
+                .forEach(event -> event.setNextAttemptAt(LocalDateTime.now().minusSeconds(1))));
+    }
+
+    private List<OutboxEvent> eventsOf(Long aggregateId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(aggregateId))
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toList();
+    }
+
+    @TestConfiguration
+    static class ListenerConfig {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements OutboxListener {
+        private final List<String> delivered = new ArrayList<>();
+        private final Map<String, Integer> failures = new HashMap<>();
+        private int attempts;
+
+        @Override
+        public synchronized void onEvent(OutboxEvent event) {
+            attempts++;
+            String key = event.getAggregateId() + ":" + event.getType();
+            int remaining = failures.getOrDefault(key, 0);
+            if (remaining > 0) {
+                failures.put(key, remaining - 1);
+                throw new IllegalStateException("Listener unavailable");
+            }
+            delivered.add(key);
+        }
+
+        synchronized void failTimes(Long aggregateId, OutboxEventType type, int times) {
+            failures.put(aggregateId + ":" + type, times);
+        }
+
+        synchronized List<String> delivered() {
+            return List.copyOf(delivered);
+        }
+
+        synchronized int attempts() {
+            return attempts;
+        }
+
+        synchronized void reset() {
+            delivered.clear();
+            failures.clear();
+            attempts = 0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.common.persistence;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.common.querylog.QueryTimingDataSource;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Default settings apart from the switch: the limit is taken from the Hikari pool before it has started.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrency-limit",
+        "shareit.datasource.concurrency-limit.enabled=true",
+        "shareit.datasource.concurrency-limit.acquire-timeout=200ms"
+})
+class DataSourceConcurrencyConfigTest {
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void limitDefaultsToThePoolSize() throws Exception {
+        ConcurrencyLimitingDataSource limiter = dataSource.unwrap(ConcurrencyLimitingDataSource.class);
+
+        assertThat(limiter.getMaxConcurrent()).isEqualTo(HIKARI_DEFAULT_POOL_SIZE);
+        assertThat(limiter.getAvailablePermits()).isEqualTo(HIKARI_DEFAULT_POOL_SIZE);
+        assertThat(userRepository.save(User.builder().name("user").email("user@mail.ru").build()).getId())
+                .isNotNull();
+        assertThat(limiter.getAvailablePermits()).isEqualTo(HIKARI_DEFAULT_POOL_SIZE);
+    }
+
+    @Test
+    void permitGaugesAreRegisteredBehindTheQueryLog() throws Exception {
+        assertThat(dataSource.isWrapperFor(QueryTimingDataSource.class)).isTrue();
+        assertThat(meterRegistry.get("shareit.datasource.permits.available").gauge().value())
+                .isEqualTo(HIKARI_DEFAULT_POOL_SIZE);
+        assertThat(meterRegistry.get("shareit.datasource.permits.waiting").gauge().value()).isZero();
+    }
+
+    @Test
+    void callersBeyondTheLimitTimeOutUntilAConnectionIsClosed() throws Exception {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < HIKARI_DEFAULT_POOL_SIZE; i++) {
+                connections.add(dataSource.getConnection());
+            }
+
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+            connections.remove(0).close();
+            try (Connection connection = dataSource.getConnection()) {
+                assertThat(connection.isValid(1)).isTrue();
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+}
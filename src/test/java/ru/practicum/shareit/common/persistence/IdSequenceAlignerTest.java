@@ -0,0 +1,58 @@
+package ru.practicum.shareit.common.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simulates a database populated before the sequences existed: rows with identity ids and a sequence at 1.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:id-sequence-aligner")
+class IdSequenceAlignerTest {
+    private static final int ROWS = 120;
+
+    @Autowired
+    private IdSequenceAligner idSequenceAligner;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void newItemsDoNotReuseExistingIds() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            rows.add(new Object[]{(long) i, "item " + i, owner.getId()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, is_available, owner_id, comment_count, "
+                                 + "version) VALUES (?, ?, 'legacy', TRUE, ?, 0, 0)", rows);
+        jdbcTemplate.execute("ALTER SEQUENCE items_seq RESTART WITH 1");
+
+        idSequenceAligner.align();
+        List<Item> created = itemRepository.saveAll(List.of(newItem(owner), newItem(owner), newItem(owner)));
+
+        assertThat(created).allSatisfy(item -> assertThat(item.getId()).isGreaterThan(ROWS));
+    }
+
+    private static Item newItem(User owner) {
+        return Item.builder()
+                .owner(owner)
+                .name("new")
+                .description("new")
+                .available(true)
+                .build();
+    }
+}
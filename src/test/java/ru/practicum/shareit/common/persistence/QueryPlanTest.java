@@ -0,0 +1,285 @@
+package ru.practicum.shareit.common.persistence;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.OwnerBookingViewRepository;
+import ru.practicum.shareit.booking.service.OwnerBookingProjection;
+import ru.practicum.shareit.comments.model.Comment;
+import ru.practicum.shareit.comments.repository.CommentRepository;
+import ru.practicum.shareit.common.outbox.OutboxEvent;
+import ru.practicum.shareit.common.outbox.OutboxEventRepository;
+import ru.practicum.shareit.common.outbox.OutboxEventType;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the SQL that every repository query issues and fails when H2 falls back to a full table scan.
+ * {@code ItemRepository.findAllByAvailableTrue} and {@code findBySearchText} read the whole table by design.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plan",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.common.persistence.QueryPlanTest$SqlCapture"
+})
+class QueryPlanTest {
+    private static final String FULL_SCAN = "tableScan";
+    private static final int USERS = 100;
+    private static final int ITEMS = 500;
+    private static final int BOOKINGS = 5000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private OwnerBookingViewRepository ownerBookingViewRepository;
+    @Autowired
+    private OwnerBookingProjection ownerBookingProjection;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueriesUseIndexes() {
+        seed();
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest page = PageRequest.of(0, 10);
+        LocalDateTime cursorStart = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+        List<Long> itemIds = List.of(1L, 2L, 3L);
+        Sort byStart = Sort.by(Sort.Direction.DESC, "start");
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("BookingRepository.findById", () -> bookingRepository.findById(1L));
+        queries.put("BookingRepository.findAllByItemIdOrderByStartAsc",
+                () -> bookingRepository.findAllByItemIdOrderByStartAsc(1L));
+        queries.put("BookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore",
+                () -> bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(2L, 1L,
+                        BookingStatus.APPROVED, now));
+        queries.put("BookingRepository.findPageByBookerId",
+                () -> bookingRepository.findPageByBookerId(2L, cursorStart, Long.MAX_VALUE, page));
+        queries.put("BookingRepository.findCurrentPageByBookerId",
+                () -> bookingRepository.findCurrentPageByBookerId(2L, now, cursorStart, Long.MAX_VALUE, page));
+        queries.put("BookingRepository.findPastPageByBookerId",
+                () -> bookingRepository.findPastPageByBookerId(2L, now, cursorStart, Long.MAX_VALUE, page));
+        queries.put("BookingRepository.findFuturePageByBookerId",
+                () -> bookingRepository.findFuturePageByBookerId(2L, now, cursorStart, Long.MAX_VALUE, page));
+        queries.put("BookingRepository.findPageByBookerIdAndStatus",
+                () -> bookingRepository.findPageByBookerIdAndStatus(2L, BookingStatus.WAITING, cursorStart,
+                        Long.MAX_VALUE, page));
+        queries.put("OwnerBookingViewRepository.findPageByOwnerId",
+                () -> ownerBookingViewRepository.findPageByOwnerId(1L, cursorStart, Long.MAX_VALUE, page));
+        queries.put("OwnerBookingViewRepository.findCurrentPageByOwnerId",
+                () -> ownerBookingViewRepository.findCurrentPageByOwnerId(1L, now, cursorStart, Long.MAX_VALUE, page));
+        queries.put("OwnerBookingViewRepository.findPastPageByOwnerId",
+                () -> ownerBookingViewRepository.findPastPageByOwnerId(1L, now, cursorStart, Long.MAX_VALUE, page));
+        queries.put("OwnerBookingViewRepository.findFuturePageByOwnerId",
+                () -> ownerBookingViewRepository.findFuturePageByOwnerId(1L, now, cursorStart, Long.MAX_VALUE, page));
+        queries.put("OwnerBookingViewRepository.findPageByOwnerIdAndStatus",
+                () -> ownerBookingViewRepository.findPageByOwnerIdAndStatus(1L, BookingStatus.WAITING, cursorStart,
+                        Long.MAX_VALUE, page));
+        queries.put("BookingRepository.streamAllByOwnerId", () -> {
+            try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(1L)) {
+                bookings.limit(1).count();
+            }
+        });
+        queries.put("BookingRepository.findAllByItemIdAndStatus",
+                () -> bookingRepository.findAllByItemIdAndStatus(1L, BookingStatus.APPROVED, byStart));
+        queries.put("BookingRepository.findIntervalsByItemId",
+                () -> bookingRepository.findIntervalsByItemId(1L,
+                        List.of(BookingStatus.APPROVED, BookingStatus.WAITING), now));
+        queries.put("BookingRepository.findItemIdsByBookerId",
+                () -> bookingRepository.findItemIdsByBookerId(2L));
+        queries.put("BookingRepository.countByItemIdIn",
+                () -> bookingRepository.countByItemIdIn(itemIds, BookingStatus.APPROVED, now));
+        queries.put("BookingRepository.findLastAndNextByItemIdIn",
+                () -> bookingRepository.findLastAndNextByItemIdIn(itemIds, BookingStatus.APPROVED, now));
+        queries.put("BookingRepository.findFirstByItemIdInAndStartLessThanEqualAndStatus",
+                () -> bookingRepository.findFirstByItemIdInAndStartLessThanEqualAndStatus(itemIds, now,
+                        BookingStatus.APPROVED, byStart));
+        queries.put("BookingRepository.findFirstByItemIdInAndStartAfterAndStatus",
+                () -> bookingRepository.findFirstByItemIdInAndStartAfterAndStatus(itemIds, now,
+                        BookingStatus.APPROVED, byStart));
+        queries.put("BookingRepository.findAllByItemIdInAndStatusAndStartBeforeAndEndAfter",
+                () -> bookingRepository.findAllByItemIdInAndStatusAndStartBeforeAndEndAfter(itemIds,
+                        BookingStatus.APPROVED, now.plusDays(1), now));
+        queries.put("BookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter",
+                () -> bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfter(1L,
+                        BookingStatus.APPROVED, now.plusDays(1), now));
+        queries.put("ItemRepository.findAllByOwnerId", () -> itemRepository.findAllByOwnerId(1L));
+        queries.put("ItemRepository.findAllByItemRequestIdIn", () -> itemRepository.findAllByItemRequestIdIn(itemIds));
+        queries.put("ItemRepository.findByIdForUpdate", () -> itemRepository.findByIdForUpdate(1L));
+        queries.put("ItemRepository.findAllByIdForUpdate", () -> itemRepository.findAllByIdForUpdate(itemIds));
+        queries.put("CommentRepository.findAllByItemId", () -> commentRepository.findAllByItemId(1L));
+        queries.put("CommentRepository.findPageByItemId",
+                () -> commentRepository.findPageByItemId(1L, cursorStart, Long.MAX_VALUE, page));
+        queries.put("ItemRequestRepository.findAllByRequestorIdOrderByCreatedDescIdDesc",
+                () -> itemRequestRepository.findAllByRequestorIdOrderByCreatedDescIdDesc(2L));
+        queries.put("ItemRequestRepository.findAllByRequestorIdNotOrderByCreatedDescIdDesc",
+                () -> itemRequestRepository.findAllByRequestorIdNotOrderByCreatedDescIdDesc(2L, page));
+        queries.put("OutboxEventRepository.findBatch", () -> outboxEventRepository.findBatch(now, page));
+        queries.put("OutboxEventRepository.findFirstByParkedFalseOrderByIdAsc",
+                () -> outboxEventRepository.findFirstByParkedFalseOrderByIdAsc());
+        queries.put("OutboxEventRepository.countByParked", () -> outboxEventRepository.countByParked(true));
+        queries.put("UserRepository.existsByEmail", () -> userRepository.existsByEmail("user1@mail.ru"));
+        queries.put("UserRepository.existsByEmailAndIdNot",
+                () -> userRepository.existsByEmailAndIdNot("user1@mail.ru", 1L));
+
+        return queries.entrySet().stream()
+                .map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+                    List<String> statements = capture(query.getValue());
+                    assertThat(statements).as("SQL issued by %s", query.getKey()).isNotEmpty();
+                    for (String sql : statements) {
+                        assertThat(explain(sql)).as("Plan of %s", sql).doesNotContain(FULL_SCAN);
+                    }
+                }));
+    }
+
+    private List<String> capture(Runnable query) {
+        SqlCapture.STATEMENTS.clear();
+        transactionTemplate.executeWithoutResult(status -> query.run());
+        return SqlCapture.STATEMENTS.stream()
+                .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    private void seed() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                users.add(User.builder().name("user" + i).email("user" + i + "@mail.ru").build());
+            }
+            userRepository.saveAll(users);
+
+            List<ItemRequest> requests = new ArrayList<>();
+            for (int i = 0; i < USERS * 2; i++) {
+                requests.add(ItemRequest.builder()
+                        .description("request " + i)
+                        .requestor(users.get(random.nextInt(USERS)))
+                        .created(now.minusHours(i))
+                        .build());
+            }
+            itemRequestRepository.saveAll(requests);
+
+            List<Item> items = new ArrayList<>();
+            for (int i = 0; i < ITEMS; i++) {
+                items.add(Item.builder()
+                        .owner(users.get(random.nextInt(USERS)))
+                        .name("item " + i)
+                        .description("description " + i)
+                        .available(true)
+                        .itemRequest(i % 5 == 0 ? requests.get(random.nextInt(requests.size())) : null)
+                        .build());
+            }
+            itemRepository.saveAll(items);
+
+            BookingStatus[] statuses = BookingStatus.values();
+            List<Booking> bookings = new ArrayList<>();
+            for (int i = 0; i < BOOKINGS; i++) {
+                LocalDateTime start = now.plusHours(random.nextInt(24 * 730) - 24 * 365);
+                bookings.add(Booking.builder()
+                        .item(items.get(random.nextInt(ITEMS)))
+                        .booker(users.get(random.nextInt(USERS)))
+                        .start(start)
+                        .end(start.plusHours(1 + random.nextInt(72)))
+                        .status(statuses[random.nextInt(statuses.length)])
+                        .build());
+            }
+            bookingRepository.saveAll(bookings);
+
+            List<Comment> comments = new ArrayList<>();
+            for (int i = 0; i < BOOKINGS / 5; i++) {
+                comments.add(Comment.builder()
+                        .item(items.get(random.nextInt(ITEMS)))
+                        .author(users.get(random.nextInt(USERS)))
+                        .text("comment " + i)
+                        .created(now.minusMinutes(i))
+                        .build());
+            }
+            commentRepository.saveAll(comments);
+
+            List<OutboxEvent> events = new ArrayList<>();
+            for (int i = 0; i < BOOKINGS; i++) {
+                events.add(OutboxEvent.builder()
+                        .aggregateType("Booking")
+                        .aggregateId((long) random.nextInt(BOOKINGS))
+                        .type(OutboxEventType.BOOKING_CREATED)
+                        .payload("{}")
+                        .createdAt(now.minusSeconds(i))
+                        .nextAttemptAt(now.plusSeconds(random.nextInt(60) - 30))
+                        .parked(i % 100 == 0)
+                        .build());
+            }
+            outboxEventRepository.saveAll(events);
+        });
+        ownerBookingProjection.rebuild();
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.common.querylog;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryFingerprintTest {
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '"', value = {
+            // String literals, including escaped quotes
+            "select * from users where email = 'a@b.ru' | select * from users where email = ?",
+            "select * from users where name = 'O''Brien' | select * from users where name = ?",
+            // Numbers, but not digits that are part of identifiers or aliases
+            "select * from items where id = 42 and price > 1.5 | select * from items where id = ? and price > ?",
+            "select i1_0.id from items i1_0 where i1_0.id = ? | select i1_0.id from items i1_0 where i1_0.id = ?",
+            // IN lists of any length, single element included
+            "select * from items where id in (?, ?, ?) | select * from items where id in (?...)",
+            "select * from items where id in (?) | select * from items where id in (?...)",
+            "select * from items where id IN ( ? ) | select * from items where id IN (?...)",
+            "select * from items where id not in (1, 2) | select * from items where id not in (?...)",
+            // A function of one argument is not an IN list
+            "select * from users where lower(email) = lower(?) | select * from users where lower(email) = lower(?)",
+            // Whitespace
+            "\"  select *\n  from users\twhere id = 1 \" | select * from users where id = ?"
+    })
+    void normalizesLiteralsInListsAndWhitespace(String sql, String fingerprint) {
+        assertThat(QueryFingerprint.of(sql)).isEqualTo(fingerprint);
+    }
+}
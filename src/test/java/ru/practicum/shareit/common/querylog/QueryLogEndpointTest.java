@@ -0,0 +1,43 @@
+package ru.practicum.shareit.common.querylog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-log-endpoint",
+        "spring.jpa.properties.hibernate.generate_statistics=false"
+})
+class QueryLogEndpointTest {
+    @Autowired
+    private QueryLogEndpoint queryLogEndpoint;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void statementsAreLoggedWhileHibernateStatisticsAreOff() {
+        queryLogEndpoint.reset();
+        userRepository.save(User.builder().name("User").email("user@mail.ru").build());
+        userRepository.existsByEmail("user@mail.ru");
+
+        Map<String, Object> queries = queryLogEndpoint.queries();
+
+        assertThat(queries.get("hibernate")).isEqualTo(Map.of("enabled", false));
+        @SuppressWarnings("unchecked")
+        List<QueryStats.Snapshot> fingerprints = (List<QueryStats.Snapshot>) queries.get("fingerprints");
+        assertThat(fingerprints)
+                .filteredOn(stats -> stats.fingerprint().startsWith("select"))
+                .anySatisfy(stats -> {
+                    assertThat(stats.fingerprint()).contains("email=?").doesNotContain("user@mail.ru");
+                    assertThat(stats.rows()).isEqualTo(1);
+                    assertThat(stats.origins()).containsEntry("UserRepository.existsByEmail", 1L);
+                });
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.common.querylog;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryTimingDataSourceTest {
+    private final QueryLog queryLog = new QueryLog(new QueryLogProperties());
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID());
+        connection = new QueryTimingDataSource(h2, queryLog).getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table things (id int primary key, name varchar(20))");
+        }
+        queryLog.reset();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void updateCountsAreRecordedAsRows() throws Exception {
+        try (PreparedStatement insert = connection.prepareStatement("insert into things values (?, ?)")) {
+            for (int id = 1; id <= 3; id++) {
+                insert.setInt(1, id);
+                insert.setString(2, "thing " + id);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("update things set name = 'renamed' where id > 1");
+        }
+
+        assertThat(rowsOf("insert into things values (?, ?)")).isEqualTo(3);
+        assertThat(rowsOf("update things set name = ? where id > ?")).isEqualTo(2);
+    }
+
+    @Test
+    void queryRowsAreCountedAsTheResultIsRead() throws Exception {
+        insert(5);
+
+        try (PreparedStatement select = connection.prepareStatement("select * from things where id <= ?")) {
+            select.setInt(1, 4);
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    assertThat(queryLog.top(10)).noneMatch(stats -> stats.fingerprint().startsWith("select"));
+                }
+            }
+        }
+
+        assertThat(rowsOf("select * from things where id <= ?")).isEqualTo(4);
+    }
+
+    @Test
+    void partlyReadResultIsRecordedWhenItsStatementCloses() throws Exception {
+        insert(5);
+
+        try (PreparedStatement select = connection.prepareStatement("select * from things order by id")) {
+            ResultSet resultSet = select.executeQuery();
+            resultSet.next();
+            resultSet.next();
+        }
+
+        assertThat(rowsOf("select * from things order by id")).isEqualTo(2);
+    }
+
+    @Test
+    void reexecutingAStatementRecordsThePreviousResult() throws Exception {
+        insert(3);
+
+        try (PreparedStatement select = connection.prepareStatement("select * from things where id = ?")) {
+            for (int id = 1; id <= 3; id++) {
+                select.setInt(1, id);
+                ResultSet resultSet = select.executeQuery();
+                resultSet.next();
+            }
+        }
+
+        QueryStats.Snapshot stats = statsOf("select * from things where id = ?");
+        assertThat(stats.count()).isEqualTo(3);
+        assertThat(stats.rows()).isEqualTo(3);
+    }
+
+    private void insert(int count) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            for (int id = 1; id <= count; id++) {
+                statement.executeUpdate("insert into things values (" + id + ", 'thing')");
+            }
+        }
+        queryLog.reset();
+    }
+
+    private long rowsOf(String fingerprint) {
+        return statsOf(fingerprint).rows();
+    }
+
+    private QueryStats.Snapshot statsOf(String fingerprint) {
+        return queryLog.top(10).stream()
+                .filter(stats -> stats.fingerprint().equals(fingerprint))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No stats for " + fingerprint + " in " + queryLog.top(10)));
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.common.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitInterceptorTest {
+    private final RateLimiter rateLimiter = mock(RateLimiter.class);
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(rateLimiter, new ObjectMapper());
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 1",
+            "999999999, 1",
+            "1000000000, 1",
+            "1000000001, 2",
+            "2500000000, 3"
+    })
+    void retryAfterRoundsTheWaitUpToWholeSeconds(long waitNanos, String retryAfter) throws Exception {
+        when(rateLimiter.tryAcquire(anyString(), any())).thenReturn(waitNanos);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(new MockHttpServletRequest("GET", "/users"), response, new Object());
+
+        assertThat(proceed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(retryAfter);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.web.HeaderConstants;
+import ru.practicum.shareit.exception.ErrorCode;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rate-limit",
+        "shareit.rate-limit.read.capacity=2",
+        "shareit.rate-limit.read.refill-per-second=0.25"
+})
+@AutoConfigureMockMvc
+class RateLimitTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void exhaustedClientGets429WithRetryAfterWhileOthersPass() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/users").header(HeaderConstants.USER_ID, 1))
+                    .andExpect(status().isOk());
+        }
+
+        // One token every four seconds, less whatever has refilled since the bucket was created
+        mockMvc.perform(get("/users").header(HeaderConstants.USER_ID, 1))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, matchesPattern("[1-4]")))
+                .andExpect(jsonPath("$.code").value(ErrorCode.TOO_MANY_REQUESTS.name()))
+                .andExpect(jsonPath("$.error").value(startsWith("Too many requests, retry after")));
+
+        mockMvc.perform(get("/users").header(HeaderConstants.USER_ID, 2))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk());
+    }
+}
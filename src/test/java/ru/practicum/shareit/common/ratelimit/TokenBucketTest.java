@@ -0,0 +1,101 @@
+package ru.practicum.shareit.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+    private static final long START = 1_000_000_000L;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void startsFullAndRejectsBeyondCapacity() {
+        TokenBucket bucket = bucket(3, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(START)).isZero();
+        }
+        assertThat(bucket.tryAcquire(START)).isEqualTo(SECOND);
+        assertThat(bucket.getThrottled()).isEqualTo(1);
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        TokenBucket bucket = bucket(1, 4);
+        assertThat(bucket.tryAcquire(START)).isZero();
+
+        // A quarter of a second buys one token; half of it leaves half a token to wait for
+        assertThat(bucket.tryAcquire(START + SECOND / 8)).isEqualTo(SECOND / 8);
+        assertThat(bucket.tryAcquire(START + SECOND / 4)).isZero();
+        assertThat(bucket.tryAcquire(START + SECOND / 4)).isEqualTo(SECOND / 4);
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        TokenBucket bucket = bucket(2, 10);
+        assertThat(bucket.tryAcquire(START)).isZero();
+        assertThat(bucket.tryAcquire(START)).isZero();
+
+        long later = START + 60 * SECOND;
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+
+    @Test
+    void clockGoingBackDoesNotAddTokens() {
+        TokenBucket bucket = bucket(1, 1);
+        assertThat(bucket.tryAcquire(START)).isZero();
+
+        assertThat(bucket.tryAcquire(START - SECOND)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void concurrentCallersNeverTakeMoreThanTheCapacity() throws Exception {
+        int capacity = 1_000;
+        int threads = 8;
+        int attemptsPerThread = 500;
+        TokenBucket bucket = bucket(capacity, 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    go.await();
+                    int acquired = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        // The same instant for every caller: only the compare-and-set decides who gets a token
+                        if (bucket.tryAcquire(START) == 0) {
+                            acquired++;
+                        }
+                    }
+                    return acquired;
+                }));
+            }
+            go.countDown();
+            int acquired = 0;
+            for (Future<Integer> result : results) {
+                acquired += result.get();
+            }
+
+            assertThat(acquired).isEqualTo(capacity);
+            assertThat(bucket.getThrottled()).isEqualTo((long) threads * attemptsPerThread - capacity);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static TokenBucket bucket(long capacity, double refillPerSecond) {
+        return new TokenBucket(new RateLimitProperties.Budget(capacity, refillPerSecond), START);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.common.replica;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.common.persistence.ConcurrencyLimitingDataSource;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The replica is a second, empty H2 database: a read that finds no users was served by the replica.
+ * Replication of the heartbeat is simulated by writing it into the replica directly.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-routing-primary",
+        "shareit.datasource.replica.enabled=true",
+        "shareit.datasource.replica.initialize-schema=true",
+        "shareit.datasource.replica.probe-interval=1h",
+        "shareit.datasource.replica.replicas[0].url=" + ReplicaRoutingTest.REPLICA_URL,
+        "shareit.datasource.replica.replicas[0].username=sa",
+        "shareit.datasource.replica.replicas[0].password=",
+        "shareit.datasource.concurrency-limit.enabled=true"
+})
+class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-routing-replica";
+
+    @Autowired
+    private ReplicaSet replicaSet;
+    @Autowired
+    private ReadYourWritesTracker tracker;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSource dataSource;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        userRepository.save(newUser());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.clear();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaWithinLag() {
+        replicateHeartbeat(Duration.ZERO);
+
+        assertThat(countUsers(readOnly)).isZero();
+        assertThat(countUsers(new TransactionTemplate(transactionManager))).isPositive();
+    }
+
+    @Test
+    void laggingReplicaGetsNoReads() {
+        replicateHeartbeat(Duration.ofHours(1));
+
+        assertThat(countUsers(readOnly)).isPositive();
+    }
+
+    @Test
+    void clientReadsItsOwnWriteFromPrimary() {
+        replicateHeartbeat(Duration.ZERO);
+
+        tracker.bind("writer");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> userRepository.save(newUser()));
+        assertThat(countUsers(readOnly)).isPositive();
+
+        tracker.bind("reader");
+        assertThat(countUsers(readOnly)).isZero();
+    }
+
+    @Test
+    void concurrencyLimitCoversPrimaryAndReplicaPools() throws SQLException {
+        assertThat(dataSource.unwrap(ConcurrencyLimitingDataSource.class).getMaxConcurrent()).isEqualTo(20);
+    }
+
+    private Long countUsers(TransactionTemplate transaction) {
+        return transaction.execute(status -> userRepository.count());
+    }
+
+    private void replicateHeartbeat(Duration lag) {
+        replica.update("MERGE INTO replica_heartbeat (id, beat) KEY (id) VALUES (1, ?)",
+                System.currentTimeMillis() - lag.toMillis());
+        replicaSet.probe();
+    }
+
+    private static User newUser() {
+        return User.builder()
+                .name("user")
+                .email(UUID.randomUUID() + "@mail.ru")
+                .build();
+    }
+}
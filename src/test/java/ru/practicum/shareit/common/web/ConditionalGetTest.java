@@ -0,0 +1,166 @@
+package ru.practicum.shareit.common.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.TestData.item;
+import static ru.practicum.shareit.TestData.user;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private User stranger;
+    private Item item;
+    private Booking waiting;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(user());
+        booker = userRepository.save(user());
+        stranger = userRepository.save(user());
+        item = itemRepository.save(item(owner));
+        LocalDateTime now = LocalDateTime.now();
+        // A finished booking lets the booker comment on the item
+        saveBooking(now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        waiting = saveBooking(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+    }
+
+    @Test
+    void userTagChangesOnUpdate() throws Exception {
+        String url = "/users/" + owner.getId();
+        String etag = etag(url, null);
+        assertNotModified(url, null, etag);
+
+        mockMvc.perform(patch(url)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"renamed\"}"))
+                .andExpect(status().isOk());
+
+        assertChanged(url, null, etag);
+    }
+
+    @Test
+    void itemTagChangesOnUpdateAndComment() throws Exception {
+        String url = "/items/" + item.getId();
+        String ownerTag = etag(url, owner.getId());
+        String strangerTag = etag(url, stranger.getId());
+        assertNotModified(url, owner.getId(), ownerTag);
+        assertNotModified(url, stranger.getId(), strangerTag);
+
+        mockMvc.perform(patch(url)
+                        .header(HeaderConstants.USER_ID, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"Hammer drill\"}"))
+                .andExpect(status().isOk());
+        ownerTag = assertChanged(url, owner.getId(), ownerTag);
+        strangerTag = assertChanged(url, stranger.getId(), strangerTag);
+
+        mockMvc.perform(post(url + "/comment")
+                        .header(HeaderConstants.USER_ID, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\": \"Works well\"}"))
+                .andExpect(status().isOk());
+        assertChanged(url, owner.getId(), ownerTag);
+        assertChanged(url, stranger.getId(), strangerTag);
+    }
+
+    @Test
+    void approvalChangesBookingTagAndOwnersItemTagOnly() throws Exception {
+        String bookingUrl = "/bookings/" + waiting.getId();
+        String itemUrl = "/items/" + item.getId();
+        String bookingTag = etag(bookingUrl, booker.getId());
+        String ownerTag = etag(itemUrl, owner.getId());
+        String strangerTag = etag(itemUrl, stranger.getId());
+        assertNotModified(bookingUrl, booker.getId(), bookingTag);
+
+        mockMvc.perform(patch(bookingUrl)
+                        .header(HeaderConstants.USER_ID, owner.getId())
+                        .param("approved", "true"))
+                .andExpect(status().isOk());
+
+        assertChanged(bookingUrl, booker.getId(), bookingTag);
+        // The owner sees the approved booking as nextBooking; other users get the same item as before
+        assertChanged(itemUrl, owner.getId(), ownerTag);
+        assertNotModified(itemUrl, stranger.getId(), strangerTag);
+    }
+
+    @Test
+    void hiddenBookingIsNotFoundEvenWithATag() throws Exception {
+        String url = "/bookings/" + waiting.getId();
+        String etag = etag(url, booker.getId());
+
+        mockMvc.perform(get(url)
+                        .header(HeaderConstants.USER_ID, stranger.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+
+    private String etag(String url, Long userId) throws Exception {
+        String etag = mockMvc.perform(withUser(get(url), userId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+
+    private void assertNotModified(String url, Long userId, String etag) throws Exception {
+        mockMvc.perform(withUser(get(url), userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    private String assertChanged(String url, Long userId, String etag) throws Exception {
+        mockMvc.perform(withUser(get(url), userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        String changed = etag(url, userId);
+        assertThat(changed).isNotEqualTo(etag);
+        return changed;
+    }
+
+    private static MockHttpServletRequestBuilder withUser(MockHttpServletRequestBuilder request, Long userId) {
+        return userId == null ? request : request.header(HeaderConstants.USER_ID, userId);
+    }
+
+    private Booking saveBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.web.HeaderConstants;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:error-handler")
+@AutoConfigureMockMvc
+class ErrorHandlerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void unknownStateIsBadRequest() throws Exception {
+        Long userId = userRepository.save(User.builder().name("Booker").email("booker@mail.ru").build()).getId();
+
+        for (String path : new String[]{"/bookings", "/bookings/owner"}) {
+            mockMvc.perform(get(path).param("state", "SOMETIMES").header(HeaderConstants.USER_ID, userId))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value(ErrorCode.UNKNOWN_STATE.name()))
+                    .andExpect(jsonPath("$.error").value("Unknown state: UNSUPPORTED_STATUS"));
+        }
+    }
+
+    @Test
+    void missingUserHeaderIsBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(ErrorCode.INVALID_ARGUMENT.name()));
+    }
+
+    @Test
+    void malformedArgumentIsBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings/abc").header(HeaderConstants.USER_ID, "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(ErrorCode.INVALID_ARGUMENT.name()));
+        mockMvc.perform(get("/bookings").header(HeaderConstants.USER_ID, "one"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(ErrorCode.INVALID_ARGUMENT.name()));
+    }
+
+    @Test
+    void missingBookingKeepsItsMessage() throws Exception {
+        mockMvc.perform(get("/bookings/999").header(HeaderConstants.USER_ID, "1"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value(ErrorCode.BOOKING_NOT_FOUND.name()))
+                .andExpect(jsonPath("$.error").value("There is no Booking with Id 999"));
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.AvailabilityWindowDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemAvailabilityCalendarTest {
+    private static final long ITEM_ID = 1L;
+    private static final LocalDateTime DAY = LocalDateTime.now().plusYears(1).withNano(0);
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ItemAvailabilityCalendar calendar = new ItemAvailabilityCalendar(bookingRepository);
+
+    @Test
+    void mergeJoinsOverlappingAdjacentAndContainedIntervals() {
+        long[] periods = ItemAvailabilityCalendar.merge(List.of(
+                interval(0, 4),
+                interval(2, 6),   // overlaps
+                interval(6, 8),   // adjacent
+                interval(7, 8),   // contained
+                interval(10, 12),
+                interval(10, 11), // contained, same start
+                interval(14, 15)));
+
+        assertThat(periods).containsExactly(
+                millis(0), millis(8),
+                millis(10), millis(12),
+                millis(14), millis(15));
+    }
+
+    @Test
+    void mergeOfNothingIsEmpty() {
+        assertThat(ItemAvailabilityCalendar.merge(List.of())).isEmpty();
+    }
+
+    @Test
+    void freeWindowsAreTheGapsBetweenBusyPeriods() {
+        busy(interval(2, 4), interval(3, 6), interval(8, 10));
+
+        assertThat(windows(calendar.freeWindows(ITEM_ID, hour(0), hour(12)))).containsExactly(
+                window(0, 2), window(6, 8), window(10, 12));
+    }
+
+    @Test
+    void freeWindowsAreClippedToTheRequestedRange() {
+        busy(interval(2, 4), interval(8, 10));
+
+        assertThat(windows(calendar.freeWindows(ITEM_ID, hour(3), hour(9)))).containsExactly(window(4, 8));
+        assertThat(windows(calendar.freeWindows(ITEM_ID, hour(2), hour(4)))).isEmpty();
+        assertThat(windows(calendar.freeWindows(ITEM_ID, hour(5), hour(5)))).isEmpty();
+    }
+
+    @Test
+    void emptyCalendarIsOneFreeWindow() {
+        busy();
+
+        assertThat(windows(calendar.freeWindows(ITEM_ID, hour(0), hour(24)))).containsExactly(window(0, 24));
+    }
+
+    @Test
+    void pastFromStartsAtNow() {
+        busy();
+        LocalDateTime before = LocalDateTime.now();
+
+        List<AvailabilityWindowDto> windows = calendar.freeWindows(ITEM_ID, before.minusDays(7), DAY);
+
+        assertThat(windows).hasSize(1);
+        // Windows are kept in milliseconds
+        assertThat(windows.get(0).getStart()).isAfterOrEqualTo(before.truncatedTo(ChronoUnit.MILLIS));
+        assertThat(windows.get(0).getStart()).isBeforeOrEqualTo(LocalDateTime.now());
+        assertThat(windows.get(0).getEnd()).isEqualTo(DAY);
+        assertThat(calendar.freeWindows(ITEM_ID, before.minusDays(7), before.minusDays(1))).isEmpty();
+    }
+
+    @Test
+    void busyPeriodsAreCachedUntilTheItemIsEvicted() {
+        busy(interval(2, 4));
+        calendar.freeWindows(ITEM_ID, hour(0), hour(12));
+        calendar.freeWindows(ITEM_ID, hour(0), hour(12));
+        verify(bookingRepository, times(1)).findIntervalsByItemId(eq(ITEM_ID), anyCollection(), any());
+
+        busy(interval(2, 4), interval(6, 8));
+        calendar.evict(ITEM_ID);
+
+        assertThat(windows(calendar.freeWindows(ITEM_ID, hour(0), hour(12)))).containsExactly(
+                window(0, 2), window(4, 6), window(8, 12));
+    }
+
+    private void busy(BookingInterval... intervals) {
+        when(bookingRepository.findIntervalsByItemId(eq(ITEM_ID), anyCollection(), any()))
+                .thenReturn(List.of(intervals));
+    }
+
+    private static List<List<LocalDateTime>> windows(List<AvailabilityWindowDto> windows) {
+        return windows.stream().map(window -> List.of(window.getStart(), window.getEnd())).toList();
+    }
+
+    private static List<LocalDateTime> window(int fromHour, int toHour) {
+        return List.of(hour(fromHour), hour(toHour));
+    }
+
+    private static BookingInterval interval(int fromHour, int toHour) {
+        return new BookingInterval(hour(fromHour), hour(toHour));
+    }
+
+    private static LocalDateTime hour(int hour) {
+        return DAY.plusHours(hour);
+    }
+
+    private static long millis(int hour) {
+        return hour(hour).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.TestData.item;
+import static ru.practicum.shareit.TestData.user;
+
+@SpringBootTest
+class ItemBookingTimelineTest {
+    @Autowired
+    private ItemBookingTimeline itemBookingTimeline;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void loadsTheLatestStartedAndTheEarliestUpcomingApprovedBooking() {
+        User owner = userRepository.save(user());
+        Item item = itemRepository.save(item(owner));
+        Item unbooked = itemRepository.save(item(owner));
+        LocalDateTime now = LocalDateTime.now();
+        save(item, now.minusDays(10), BookingStatus.APPROVED);
+        Booking last = save(item, now.minusDays(3), BookingStatus.APPROVED);
+        save(item, now.minusDays(1), BookingStatus.REJECTED);
+        save(item, now.plusDays(1), BookingStatus.WAITING);
+        Booking next = save(item, now.plusDays(2), BookingStatus.APPROVED);
+        save(item, now.plusDays(5), BookingStatus.APPROVED);
+
+        Map<Long, ItemBookingTimeline.Entry> timeline =
+                itemBookingTimeline.get(List.of(item.getId(), unbooked.getId()));
+
+        assertThat(timeline.get(item.getId()).getLastBooking().getId()).isEqualTo(last.getId());
+        assertThat(timeline.get(item.getId()).getNextBooking().getId()).isEqualTo(next.getId());
+        assertThat(timeline.get(unbooked.getId()).getLastBooking()).isNull();
+        assertThat(timeline.get(unbooked.getId()).getNextBooking()).isNull();
+    }
+
+    private Booking save(Item item, LocalDateTime start, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(userRepository.save(user()))
+                .start(start)
+                .end(start.plusHours(12))
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.comments.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.TestData.item;
+import static ru.practicum.shareit.TestData.user;
+
+@SpringBootTest
+class ItemCommentCountConcurrencyTest {
+    private static final int COMMENTS = 8;
+    private static final int UPDATES = 8;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void ownerUpdatesDoNotLoseCommentIncrements() throws Exception {
+        User owner = userRepository.save(user());
+        Item item = itemRepository.save(item(owner));
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            User author = userRepository.save(user());
+            bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(author)
+                    .start(LocalDateTime.now().minusDays(2))
+                    .end(LocalDateTime.now().minusDays(1))
+                    .status(BookingStatus.APPROVED)
+                    .build());
+            authors.add(author);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (User author : authors) {
+            tasks.add(() -> itemService.createComment(item.getId(), author.getId(),
+                    CommentDto.builder().text("Works well").build()));
+        }
+        for (int i = 0; i < UPDATES; i++) {
+            String description = "Cordless drill, revision " + i;
+            tasks.add(() -> itemService.update(ItemDto.builder().description(description).build(), item.getId(),
+                    owner.getId()));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (Callable<Object> task : tasks) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Object> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(itemService.getById(item.getId(), owner.getId()).getCommentCount()).isEqualTo(COMMENTS);
+    }
+
+    @Test
+    void deletingAnAuthorTakesTheirCommentsOutOfTheCount() {
+        User owner = userRepository.save(user());
+        Item item = itemRepository.save(item(owner));
+        commentingAuthor(item);
+        User deleted = commentingAuthor(item);
+        itemService.createComment(item.getId(), deleted.getId(), CommentDto.builder().text("Again").build());
+        long version = itemRepository.findById(item.getId()).orElseThrow().getVersion();
+
+        userService.delete(deleted.getId());
+
+        assertThat(itemService.getById(item.getId(), owner.getId()).getCommentCount()).isEqualTo(1);
+        Item stored = itemRepository.findById(item.getId()).orElseThrow();
+        assertThat(stored.getCommentCount()).isEqualTo(1);
+        assertThat(stored.getVersion()).isEqualTo(version + 1);
+    }
+
+    private User commentingAuthor(Item item) {
+        User author = userRepository.save(user());
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(author)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .status(BookingStatus.APPROVED)
+                .build());
+        itemService.createComment(item.getId(), author.getId(), CommentDto.builder().text("Works well").build());
+        return author;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemSearchIndex index = new ItemSearchIndex(itemRepository);
+
+    @Test
+    void changesCommittedDuringRebuildAreNotOverwrittenByWhatItRead() {
+        Item drill = item(1L, "Drill");
+        Item saw = item(2L, "Saw");
+        when(itemRepository.findAllByAvailableTrue()).thenAnswer(invocation -> {
+            // Committed after the table was read, but applied before the rebuild finishes
+            index.index(item(1L, "Kayak"));
+            index.remove(2L);
+            return List.of(drill, saw);
+        });
+
+        index.rebuild();
+
+        assertThat(index.search("drill")).isEmpty();
+        assertThat(index.search("saw")).isEmpty();
+        assertThat(index.search("kayak")).extracting(ItemMatch::id).containsExactly(1L);
+    }
+
+    private static Item item(Long id, String name) {
+        return Item.builder().id(id).name(name).description(name + " for rent").available(true).build();
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.ItemBookingCount;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ItemSearchRankerTest {
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ItemSearchRanker ranker = new ItemSearchRanker(bookingRepository);
+
+    private final List<ItemMatch> matches = List.of(
+            new ItemMatch(5, 1.0),
+            new ItemMatch(1, 11.0),
+            new ItemMatch(4, 1.0),
+            new ItemMatch(2, 10.0),
+            new ItemMatch(3, 1.0));
+
+    @Test
+    void ranksByRelevanceThenById() {
+        assertThat(ranker.page(matches, 0, 10, false)).containsExactly(1L, 2L, 3L, 4L, 5L);
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void cutsOutTheRequestedPage() {
+        assertThat(ranker.page(matches, 0, 2, false)).containsExactly(1L, 2L);
+        assertThat(ranker.page(matches, 2, 2, false)).containsExactly(3L, 4L);
+        assertThat(ranker.page(matches, 4, 2, false)).containsExactly(5L);
+    }
+
+    @Test
+    void pageAfterTheLastMatchIsEmpty() {
+        assertThat(ranker.page(matches, 5, 2, false)).isEmpty();
+        assertThat(ranker.page(matches, Integer.MAX_VALUE, Integer.MAX_VALUE, false)).isEmpty();
+        assertThat(ranker.page(List.of(), 0, 20, false)).isEmpty();
+    }
+
+    @Test
+    void completedBookingsReorderMatchesOfSimilarRelevance() {
+        when(bookingRepository.countByItemIdIn(anyCollection(), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(new ItemBookingCount(5L, 3), new ItemBookingCount(4L, 1)));
+
+        // log1p(3) and log1p(1) lift 5 and 4 above 3, but neither reaches a name match
+        assertThat(ranker.page(matches, 0, 10, true)).containsExactly(1L, 2L, 5L, 4L, 3L);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.shareit.TestData.user;
+
+@SpringBootTest
+class ItemRequestPaginationTest {
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void fromNeedNotBeMultipleOfSize() {
+        Long requestor = userRepository.save(user()).getId();
+        for (int i = 0; i < 10; i++) {
+            itemRequestService.create(ItemRequestDto.builder().description("request " + i).build(), requestor);
+        }
+        Long reader = userRepository.save(user()).getId();
+
+        List<ItemRequestDto> all = itemRequestService.getAllOfOthers(reader, 0, 1000);
+        List<ItemRequestDto> page = itemRequestService.getAllOfOthers(reader, 3, 4);
+
+        assertThat(page).extracting(ItemRequestDto::getId)
+                .containsExactlyElementsOf(all.subList(3, 7).stream().map(ItemRequestDto::getId).toList());
+    }
+}